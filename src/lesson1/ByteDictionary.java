@@ -0,0 +1,130 @@
+package lesson1;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Словарь байтовых строк: каждой различной строке сопоставляется номер 0, 1, 2, ... в порядке появления.
+ *
+ * Строка передаётся отрезком байтового буфера (например, полем текущей строки {@link ByteLineReader}),
+ * и String для неё не создаётся: байты различных строк хранятся подряд в одном массиве,
+ * поиск -- по хэш-таблице с открытой адресацией и линейными пробами.
+ * Алфавитный порядок (как у String.compareTo) вычисляется один раз для различных строк методом ranks().
+ */
+class ByteDictionary {
+
+    private byte[] pool = new byte[1 << 12];
+
+    private int poolSize = 0;
+
+    // строка с номером id занимает pool[offsets[id], offsets[id + 1])
+    private int[] offsets = new int[17];
+
+    private int[] hashes = new int[16];
+
+    private int size = 0;
+
+    // номер строки + 1, 0 -- пустая ячейка
+    private int[] table = new int[32];
+
+    private int bits = 5;
+
+    int size() {
+        return size;
+    }
+
+    // Трудоемкость O(end - start) в среднем
+    int id(ByteBuffer bytes, int start, int end) {
+        int length = end - start;
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + bytes.get(i);
+        }
+        int mask = table.length - 1;
+        int index = startingIndex(hash);
+        for (int entry = table[index]; entry != 0; entry = table[index]) {
+            int id = entry - 1;
+            if (hashes[id] == hash && offsets[id + 1] - offsets[id] == length && equals(id, bytes, start)) {
+                return id;
+            }
+            index = (index + 1) & mask;
+        }
+        return add(bytes, start, length, hash, index);
+    }
+
+    private boolean equals(int id, ByteBuffer bytes, int start) {
+        for (int i = offsets[id], j = start; i < offsets[id + 1]; i++, j++) {
+            if (pool[i] != bytes.get(j)) return false;
+        }
+        return true;
+    }
+
+    private int add(ByteBuffer bytes, int start, int length, int hash, int index) {
+        if (poolSize + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(2 * pool.length, poolSize + length));
+        }
+        bytes.get(start, pool, poolSize, length);
+        poolSize += length;
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, 2 * size);
+            offsets = Arrays.copyOf(offsets, 2 * size + 1);
+        }
+        int id = size++;
+        hashes[id] = hash;
+        offsets[id + 1] = poolSize;
+        table[index] = id + 1;
+        if (size > table.length / 2) {
+            grow();
+        }
+        return id;
+    }
+
+    private int startingIndex(int hash) {
+        return (hash * 0x9E3779B9) >>> (32 - bits);
+    }
+
+    private void grow() {
+        bits++;
+        table = new int[1 << bits];
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int index = startingIndex(hashes[id]);
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = id + 1;
+        }
+    }
+
+    String get(int id) {
+        return new String(pool, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+    }
+
+    void write(int id, OutputStream output) throws IOException {
+        output.write(pool, offsets[id], offsets[id + 1] - offsets[id]);
+    }
+
+    /**
+     * Место каждой строки в алфавитном порядке: ranks()[id] = k, если строка id k-я по возрастанию
+     * (одинаковых строк в словаре нет, так что места различны)
+     */
+    // Трудоемкость O(k * log k), k - кол-во различных строк
+    // Ресурсоемкость O(k)
+    int[] ranks() {
+        String[] strings = new String[size];
+        Integer[] order = new Integer[size];
+        for (int id = 0; id < size; id++) {
+            strings[id] = get(id);
+            order[id] = id;
+        }
+        Sorts.mergeSort(order, (a, b) -> strings[a].compareTo(strings[b]));
+        int[] ranks = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            ranks[order[rank]] = rank;
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,296 @@
+package lesson1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Построчное чтение файла блоками в байтовый буфер.
+ *
+ * Строки не превращаются в String: текущая строка -- это отрезок буфера, и поля фиксированного
+ * формата (время ЧЧ:ММ:СС AM/PM, температура с десятыми, целое число) разбираются прямо из байтов.
+ * На строку ничего не выделяется; буфер растёт, только если строка в него не помещается.
+ * Те же разборщики доступны статически для любого ByteBuffer, например отображённого в память файла.
+ * Окончания строк -- \n или \r\n. При неверном формате бросается IllegalArgumentException.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ByteLineReader implements Closeable {
+
+    public static final String INVALID_FORMAT = "Неверный формат данных";
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+
+    private byte[] bytes;
+
+    private ByteBuffer buffer;
+
+    // в буфере прочитаны байты [0, limit), непросмотренные начинаются с position
+    private int limit = 0;
+
+    private int position = 0;
+
+    private boolean endOfFile = false;
+
+    // текущая строка без перевода строки
+    private int lineStart = 0;
+
+    private int lineEnd = 0;
+
+    public ByteLineReader(String fileName) throws IOException {
+        this(fileName, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ByteLineReader(String fileName, int bufferSize) throws IOException {
+        this(fileName, new byte[checkedSize(bufferSize)]);
+    }
+
+    /**
+     * Чтение с переданным буфером, например оставшимся от предыдущего файла.
+     * Если строка не помещается в буфер, заводится новый, больший
+     */
+    public ByteLineReader(String fileName, byte[] buffer) throws IOException {
+        if (buffer.length == 0) {
+            throw new IllegalArgumentException("buffer.length = 0");
+        }
+        channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ);
+        bytes = buffer;
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    private static int checkedSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize = " + bufferSize);
+        }
+        return bufferSize;
+    }
+
+    /**
+     * Переход к следующей строке; false, если файл кончился
+     */
+    public boolean nextLine() throws IOException {
+        int scanned = position;
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                if (bytes[i] == '\n') {
+                    setLine(position, i);
+                    position = i + 1;
+                    return true;
+                }
+            }
+            if (endOfFile) {
+                if (position == limit) return false;
+                // последняя строка без перевода строки
+                setLine(position, limit);
+                position = limit;
+                return true;
+            }
+            scanned = limit - position;
+            fill();
+        }
+    }
+
+    private void setLine(int start, int end) {
+        if (end > start && bytes[end - 1] == '\r') end--;
+        lineStart = start;
+        lineEnd = end;
+    }
+
+    // переносит непросмотренный остаток в начало буфера (или увеличивает буфер) и дочитывает файл
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(bytes, position, bytes, 0, remaining);
+        } else if (remaining == bytes.length) {
+            bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+            buffer = ByteBuffer.wrap(bytes);
+        }
+        position = 0;
+        limit = remaining;
+        buffer.limit(bytes.length).position(limit);
+        int read = channel.read(buffer);
+        if (read < 0) {
+            endOfFile = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    public boolean isEmptyLine() {
+        return lineStart == lineEnd;
+    }
+
+    public int lineLength() {
+        return lineEnd - lineStart;
+    }
+
+    /**
+     * Буфер, в котором лежит текущая строка: байты [lineStart(), lineEnd()).
+     * Действителен до следующего вызова nextLine()
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int lineStart() {
+        return lineStart;
+    }
+
+    public int lineEnd() {
+        return lineEnd;
+    }
+
+    public int parseInt() {
+        return parseInt(buffer, lineStart, lineEnd);
+    }
+
+    public int parseTenths() {
+        return parseTenths(buffer, lineStart, lineEnd);
+    }
+
+    public int parseTime() {
+        return parseTime(buffer, lineStart, lineEnd);
+    }
+
+    /**
+     * Целое число со знаком (необязательные + или -), занимающее байты [start, end)
+     */
+    public static int parseInt(ByteBuffer bytes, int start, int end) {
+        int i = start;
+        if (i == end) throw invalidFormat();
+        byte first = bytes.get(i);
+        boolean negative = first == '-';
+        if (negative || first == '+') {
+            i++;
+            if (i == end) throw invalidFormat();
+        }
+        // накапливаем отрицательное значение, чтобы не переполниться на Integer.MIN_VALUE
+        int limitValue = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = bytes.get(i) - '0';
+            if (digit < 0 || digit > 9 || result < limitValue / 10) throw invalidFormat();
+            result *= 10;
+            if (result < limitValue + digit) throw invalidFormat();
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Число с ровно одним знаком после точки (например -12.6 или +120.3), в десятых: -126, 1203
+     */
+    public static int parseTenths(ByteBuffer bytes, int start, int end) {
+        int i = start;
+        // минимум: цифра, точка, цифра
+        if (end - i < 3 || bytes.get(end - 2) != '.') throw invalidFormat();
+        byte first = bytes.get(i);
+        boolean negative = first == '-';
+        if (negative || first == '+') i++;
+        if (i == end - 2 || end - 2 - i > 8) throw invalidFormat();
+        int result = 0;
+        for (; i < end - 2; i++) {
+            result = result * 10 + digit(bytes.get(i));
+        }
+        result = result * 10 + digit(bytes.get(end - 1));
+        return negative ? -result : result;
+    }
+
+    /**
+     * Время в формате ЧЧ:ММ:СС AM/PM, в секундах от полуночи.
+     * Часы от 01 до 12 (12 AM -- полночь, 12 PM -- полдень), минуты и секунды от 00 до 59.
+     */
+    public static int parseTime(ByteBuffer bytes, int start, int end) {
+        int i = start;
+        if (end - i != 11 || bytes.get(i + 2) != ':' || bytes.get(i + 5) != ':' || bytes.get(i + 8) != ' '
+                || bytes.get(i + 10) != 'M') {
+            throw invalidFormat();
+        }
+        int hours = twoDigits(bytes, i);
+        int minutes = twoDigits(bytes, i + 3);
+        int seconds = twoDigits(bytes, i + 6);
+        if (hours < 1 || hours > 12 || minutes > 59 || seconds > 59) throw invalidFormat();
+        if (hours == 12) hours = 0;
+        byte half = bytes.get(i + 9);
+        if (half == 'P') hours += 12;
+        else if (half != 'A') throw invalidFormat();
+        return hours * 3600 + minutes * 60 + seconds;
+    }
+
+    /**
+     * Позиция первого байта value в [from, to), или -1
+     */
+    public static int indexOf(ByteBuffer bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes.get(i) == value) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Позиция последнего байта value в [from, to), или -1
+     */
+    public static int lastIndexOf(ByteBuffer bytes, int from, int to, byte value) {
+        for (int i = to - 1; i >= from; i--) {
+            if (bytes.get(i) == value) return i;
+        }
+        return -1;
+    }
+
+    private static int twoDigits(ByteBuffer bytes, int from) {
+        return digit(bytes.get(from)) * 10 + digit(bytes.get(from + 1));
+    }
+
+    private static int digit(byte b) {
+        int digit = b - '0';
+        if (digit < 0 || digit > 9) throw invalidFormat();
+        return digit;
+    }
+
+    /**
+     * Деление файла на parts кусков, каждый из которых начинается с начала строки (для параллельного разбора).
+     * Граница куска сдвигается от равномерной вперёд до ближайшего перевода строки включительно.
+     * Возвращает parts + 1 границу: bounds[0] = 0, bounds[parts] = размер файла.
+     */
+    public static long[] lineBounds(FileChannel channel, int parts) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[parts + 1];
+        bounds[parts] = size;
+        ByteBuffer probe = ByteBuffer.allocate(256);
+        for (int part = 1; part < parts; part++) {
+            long position = Math.max(size / parts * part, bounds[part - 1]);
+            search:
+            while (position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) {
+                    position = size;
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        position += i + 1;
+                        break search;
+                    }
+                }
+                position += read;
+            }
+            bounds[part] = position;
+        }
+        return bounds;
+    }
+
+    static IllegalArgumentException invalidFormat() {
+        return new IllegalArgumentException(INVALID_FORMAT);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
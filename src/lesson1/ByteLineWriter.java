@@ -0,0 +1,89 @@
+package lesson1;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Построчная запись в файл через байтовый буфер -- пара к {@link ByteLineReader}.
+ *
+ * Готовые байты строк копируются в буфер, целые числа переводятся в цифры прямо в буфере,
+ * в файл буфер сбрасывается целиком. Буфер можно передать снаружи и переиспользовать
+ * для следующих файлов.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ByteLineWriter implements Closeable {
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    // самое длинное int в десятичной записи: -2147483648
+    private static final int MAX_INT_LENGTH = 11;
+
+    private final OutputStream output;
+
+    private final byte[] buffer;
+
+    private int size = 0;
+
+    public ByteLineWriter(String fileName) throws IOException {
+        this(fileName, new byte[DEFAULT_BUFFER_SIZE]);
+    }
+
+    public ByteLineWriter(String fileName, byte[] buffer) throws IOException {
+        if (buffer.length < MAX_INT_LENGTH + LINE_SEPARATOR.length) {
+            throw new IllegalArgumentException("buffer.length = " + buffer.length);
+        }
+        this.buffer = buffer;
+        output = new FileOutputStream(fileName);
+    }
+
+    public void write(byte[] bytes) throws IOException {
+        if (size + bytes.length > buffer.length) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                output.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    public void writeInt(int value) throws IOException {
+        if (size + MAX_INT_LENGTH > buffer.length) flushBuffer();
+        // цифры отрицательного значения: без переполнения на Integer.MIN_VALUE
+        int negative = value < 0 ? value : -value;
+        int length = value < 0 ? 2 : 1;
+        for (int rest = negative / 10; rest != 0; rest /= 10) {
+            length++;
+        }
+        int position = size + length;
+        do {
+            buffer[--position] = (byte) ('0' - negative % 10);
+            negative /= 10;
+        } while (negative != 0);
+        if (value < 0) buffer[--position] = '-';
+        size += length;
+    }
+
+    public void newLine() throws IOException {
+        write(LINE_SEPARATOR);
+    }
+
+    private void flushBuffer() throws IOException {
+        output.write(buffer, 0, size);
+        size = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            output.close();
+        }
+    }
+}
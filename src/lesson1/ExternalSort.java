@@ -0,0 +1,283 @@
+package lesson1;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Внешняя сортировка строк текстового файла, который не помещается в память.
+ *
+ * Файл читается кусками, занимающими не больше memoryBudget байт; каждый кусок сортируется
+ * в памяти и сбрасывается во временный двоичный файл-серию (длина строки в байтах UTF-8 и сами байты).
+ * Затем серии сливаются k-путевым слиянием с деревом проигравших; если серий больше MAX_FAN_IN,
+ * слияние идёт в несколько проходов. Весь ввод-вывод последовательный и буферизованный.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ExternalSort {
+
+    // столько серий сливается за один проход
+    private static final int MAX_FAN_IN = 128;
+
+    private static final int MIN_BUFFER_SIZE = 1 << 12;
+
+    private static final int MAX_BUFFER_SIZE = 1 << 20;
+
+    // примерный расход памяти на строку в куске помимо её символов: объект, массив, ссылка в списке
+    private static final int LINE_OVERHEAD = 64;
+
+    private ExternalSort() {
+    }
+
+    public static void sortLines(String inputName, String outputName) throws IOException {
+        sortLines(inputName, outputName, Comparator.naturalOrder(), Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    // Трудоемкость O(n * log n)
+    // Ресурсоемкость O(memoryBudget) в памяти, O(n) на диске
+    public static void sortLines(String inputName, String outputName, Comparator<? super String> comparator,
+                                 long memoryBudget) throws IOException {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("memoryBudget = " + memoryBudget);
+        }
+        int bufferSize = (int) Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, memoryBudget / (MAX_FAN_IN + 1)));
+        File tempDirectory = Files.createTempDirectory("external-sort").toFile();
+        List<Run> runs = new ArrayList<>();
+        try {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(inputName), StandardCharsets.UTF_8), bufferSize)) {
+                List<String> chunk = new ArrayList<>();
+                long chunkSize = 0;
+                String line = reader.readLine();
+                while (line != null) {
+                    chunk.add(line);
+                    chunkSize += LINE_OVERHEAD + 2L * line.length();
+                    line = reader.readLine();
+                    if (chunkSize >= memoryBudget && line != null) {
+                        runs.add(spill(chunk, comparator, tempDirectory, bufferSize));
+                        chunk.clear();
+                        chunkSize = 0;
+                    }
+                }
+                if (runs.isEmpty()) {
+                    // всё поместилось в память
+                    String[] lines = sortChunk(chunk, comparator);
+                    try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                            new FileOutputStream(outputName), StandardCharsets.UTF_8), bufferSize)) {
+                        for (String sorted : lines) {
+                            writer.write(sorted);
+                            writer.newLine();
+                        }
+                    }
+                    return;
+                }
+                if (!chunk.isEmpty()) {
+                    runs.add(spill(chunk, comparator, tempDirectory, bufferSize));
+                    chunk.clear();
+                }
+            }
+
+            // промежуточные проходы: сливаем по MAX_FAN_IN серий в одну, пока серий слишком много
+            while (runs.size() > MAX_FAN_IN) {
+                List<Run> merged = new ArrayList<>();
+                for (int begin = 0; begin < runs.size(); begin += MAX_FAN_IN) {
+                    List<Run> group = runs.subList(begin, Math.min(begin + MAX_FAN_IN, runs.size()));
+                    if (group.size() == 1) {
+                        merged.add(group.get(0));
+                        continue;
+                    }
+                    File file = File.createTempFile("run", ".bin", tempDirectory);
+                    long count;
+                    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                            new FileOutputStream(file), bufferSize))) {
+                        count = merge(group, comparator, bufferSize, bytes -> {
+                            output.writeInt(bytes.length);
+                            output.write(bytes);
+                        });
+                    }
+                    for (Run run : group) {
+                        Files.delete(run.file.toPath());
+                    }
+                    merged.add(new Run(file, count));
+                }
+                runs = merged;
+            }
+
+            try (BufferedOutputStream output = new BufferedOutputStream(new FileOutputStream(outputName), bufferSize)) {
+                byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+                merge(runs, comparator, bufferSize, bytes -> {
+                    output.write(bytes);
+                    output.write(lineSeparator);
+                });
+            }
+        } finally {
+            File[] files = tempDirectory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            tempDirectory.delete();
+        }
+    }
+
+    // временный файл с отсортированным куском строк
+    private static class Run {
+        final File file;
+        final long count;
+
+        Run(File file, long count) {
+            this.file = file;
+            this.count = count;
+        }
+    }
+
+    private static String[] sortChunk(List<String> chunk, Comparator<? super String> comparator) {
+        String[] lines = chunk.toArray(new String[0]);
+        Sorts.naturalMergeSort(lines, comparator);
+        return lines;
+    }
+
+    private static Run spill(List<String> chunk, Comparator<? super String> comparator, File tempDirectory,
+                             int bufferSize) throws IOException {
+        String[] lines = sortChunk(chunk, comparator);
+        File file = File.createTempFile("run", ".bin", tempDirectory);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file), bufferSize))) {
+            for (String line : lines) {
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+        }
+        return new Run(file, lines.length);
+    }
+
+    private interface LineWriter {
+        void write(byte[] line) throws IOException;
+    }
+
+    // сливает серии, передавая байты каждой строки в порядке возрастания; возвращает число строк
+    private static long merge(List<Run> runs, Comparator<? super String> comparator, int bufferSize,
+                              LineWriter writer) throws IOException {
+        int k = runs.size();
+        DataInputStream[] inputs = new DataInputStream[k];
+        long[] remaining = new long[k];
+        try {
+            LoserTree tree = new LoserTree(k, comparator);
+            for (int i = 0; i < k; i++) {
+                Run run = runs.get(i);
+                inputs[i] = new DataInputStream(new BufferedInputStream(new FileInputStream(run.file), bufferSize));
+                remaining[i] = run.count;
+                advance(tree, inputs, remaining, i);
+            }
+            tree.build();
+            long count = 0;
+            while (!tree.isEmpty()) {
+                int winner = tree.winner();
+                writer.write(tree.bytes[winner]);
+                count++;
+                advance(tree, inputs, remaining, winner);
+                tree.replay(winner);
+            }
+            return count;
+        } finally {
+            for (DataInputStream input : inputs) {
+                if (input != null) {
+                    input.close();
+                }
+            }
+        }
+    }
+
+    // читает следующую строку серии i в лист дерева (null, если серия кончилась)
+    private static void advance(LoserTree tree, DataInputStream[] inputs, long[] remaining, int i)
+            throws IOException {
+        if (remaining[i] == 0) {
+            tree.set(i, null);
+            return;
+        }
+        remaining[i]--;
+        byte[] bytes = new byte[inputs[i].readInt()];
+        inputs[i].readFully(bytes);
+        tree.set(i, bytes);
+    }
+
+    /**
+     * Дерево проигравших для k-путевого слияния.
+     *
+     * Во внутренних узлах 1..k-1 хранятся номера серий, проигравших сравнение в этом узле,
+     * в узле 0 -- общий победитель. После извлечения победителя его серия заново проходит
+     * только путь от своего листа (k + i) к корню: log k сравнений, по одному на уровень.
+     * Кончившаяся серия проигрывает всем; при равенстве строк побеждает серия с меньшим номером,
+     * поэтому слияние устойчиво.
+     */
+    private static class LoserTree {
+        private final int k;
+        private final Comparator<? super String> comparator;
+        private final int[] tree;
+        final byte[][] bytes;
+        private final String[] heads;
+
+        LoserTree(int k, Comparator<? super String> comparator) {
+            this.k = k;
+            this.comparator = comparator;
+            tree = new int[k];
+            bytes = new byte[k][];
+            heads = new String[k];
+        }
+
+        void set(int run, byte[] line) {
+            bytes[run] = line;
+            heads[run] = line == null ? null : new String(line, StandardCharsets.UTF_8);
+        }
+
+        void build() {
+            int[] winners = new int[2 * k];
+            for (int i = 0; i < k; i++) {
+                winners[k + i] = i;
+            }
+            for (int node = k - 1; node >= 1; node--) {
+                int left = winners[2 * node];
+                int right = winners[2 * node + 1];
+                if (beats(left, right)) {
+                    winners[node] = left;
+                    tree[node] = right;
+                } else {
+                    winners[node] = right;
+                    tree[node] = left;
+                }
+            }
+            tree[0] = winners[1];
+        }
+
+        int winner() {
+            return tree[0];
+        }
+
+        boolean isEmpty() {
+            return heads[tree[0]] == null;
+        }
+
+        void replay(int run) {
+            int winner = run;
+            for (int node = (k + run) / 2; node >= 1; node /= 2) {
+                if (beats(tree[node], winner)) {
+                    int temp = tree[node];
+                    tree[node] = winner;
+                    winner = temp;
+                }
+            }
+            tree[0] = winner;
+        }
+
+        private boolean beats(int first, int second) {
+            if (heads[first] == null) return false;
+            if (heads[second] == null) return true;
+            int comparison = comparator.compare(heads[first], heads[second]);
+            return comparison < 0 || comparison == 0 && first < second;
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package lesson1;
 
-import kotlin.NotImplementedError;
+import lesson5.IntCounterMap;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
 
 
 @SuppressWarnings("unused")
@@ -39,65 +49,51 @@ public class JavaTasks {
      * В случае обнаружения неверного формата файла бросить любое исключение.
      */
 
-    // Трудоемкость O(n * log n)
-    // Ресурсоемкость O(n)
+    // Трудоемкость O(n)
+    // Ресурсоемкость O(1)
     static public void sortTimes(String inputName, String outputName) throws IOException {
-        // создаем массив, в котором будем хранить время в секундах
-        List<Integer> secondsArr = new ArrayList<>();      // R = O(n)
-        Map<Integer, String> secondsString = new HashMap<>();
-        File inputFile = new File(inputName);
-        try (BufferedReader br = new BufferedReader(new FileReader(inputFile))) {
-            String line = br.readLine();    // в этой строке хранится очередная строка из файла
-
-            // заполняем массив
+        sortTimes(inputName, outputName, new SortWorkspace());
+    }
+
+    // вариант для пакетной обработки (SortBatch): буферы и гистограмма берутся из workspace
+    static void sortTimes(String inputName, String outputName, SortWorkspace workspace) throws IOException {
+        // сортировка подсчётом: всего 86400 различных моментов времени в сутках
+        int[] count = workspace.timeCounts(SECONDS_PER_DAY);
+        try (ByteLineReader reader = workspace.reader(inputName)) {
             // T = O(n), где n - кол-во строк в файле
-            // проходим по всем строка: переводим в секунды -> добавляем в массив -> читаем следующую строку
-            int sec;
-            while (line != null) {
-                if (!line.matches("^\\d{2}:\\d{2}:\\d{2}\\s([AP])M$")) {
-                    throw new IllegalArgumentException("Неверный формат данных");
-                } else {
-                    sec = stringToSec(line);
-                    secondsArr.add(sec);
-                    secondsString.put(sec, line);
-                }
-                line = br.readLine();
+            // строки разбираются прямо из байтов, неверный формат -> IllegalArgumentException
+            while (reader.nextLine()) {
+                count[reader.parseTime()]++;
             }
         }
-
-        // сортируем массив, используется алгоритм сортировки слияниями.
-                                            // T = O (n  * log n)
-        Collections.sort(secondsArr);       // R = O(n)
-
-        // создаем объект - выходной файл
-        File outputFile = new File(outputName);
-        if (!outputFile.exists())           // если такой файл не найден, создаем его
-            outputFile.createNewFile();
-
         // T = O(n)
-        try (PrintWriter writer = new PrintWriter(outputFile)) {
-            for (int time : secondsArr) {
-                writer.println(secondsString.get(time));  // печатаем в выходной файл время, преобразованное в строку
-            }
+        try (ByteLineWriter writer = workspace.writer(outputName)) {
+            writeHistogram(count, JavaTasks::timeLine, writer);
         }
     }
 
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+
     // Трудоемкость Т = O(1)
-    // Перевод строки в секунды
-    static private int stringToSec(String str) {
-        // парсинг строки
-        int hours = Integer.parseInt(str.substring(0, 2));
-        int minutes = Integer.parseInt(str.substring(3,5));
-        int seconds = Integer.parseInt(str.substring(6,8));
-
-        // если время после полудня, то прибавляем к часам 12
-        if (str.contains("PM") && hours < 12) hours += 12;
-        // если 12 АМ => 00.00
-        if (str.contains("AM") && hours == 12) hours = 0;
-        // проверка входных данных
-        if (hours > 23 || minutes > 59 || seconds > 59)
-            throw new IllegalArgumentException("Неверный формат данных");
-        return hours * 3600 + minutes * 60 + seconds;
+    // Строка ЧЧ:ММ:СС AM/PM с переводом строки для момента sec (секунды от полуночи)
+    private static byte[] timeLine(int sec) {
+        byte[] line = Arrays.copyOf("00:00:00 AM".getBytes(), 11 + LINE_SEPARATOR.length);
+        int hours = sec / 3600;
+        if (hours >= 12) line[9] = 'P';
+        hours %= 12;
+        if (hours == 0) hours = 12;         // 00 часов -> 12 AM, 12 часов -> 12 PM
+        putTwoDigits(line, 0, hours);
+        putTwoDigits(line, 3, sec / 60 % 60);
+        putTwoDigits(line, 6, sec % 60);
+        System.arraycopy(LINE_SEPARATOR, 0, line, 11, LINE_SEPARATOR.length);
+        return line;
+    }
+
+    private static void putTwoDigits(byte[] line, int position, int value) {
+        line[position] = (byte) ('0' + value / 10);
+        line[position + 1] = (byte) ('0' + value % 10);
     }
 
 
@@ -127,8 +123,116 @@ public class JavaTasks {
      *
      * В случае обнаружения неверного формата файла бросить любое исключение.
      */
-    static public void sortAddresses(String inputName, String outputName) {
-        throw new NotImplementedError();
+
+    // Трудоемкость O(n + k * log k), где n - кол-во строк, k - кол-во различных улиц, фамилий и имён
+    // Ресурсоемкость O(n)
+    static public void sortAddresses(String inputName, String outputName) throws IOException {
+        // улицы, фамилии и имена заменяются номерами в словарях, строки для каждой записи не создаются
+        ByteDictionary streets = new ByteDictionary();
+        ByteDictionary surnames = new ByteDictionary();
+        ByteDictionary names = new ByteDictionary();
+        int[] street = new int[16];
+        int[] house = new int[16];
+        int[] surname = new int[16];
+        int[] name = new int[16];
+        int size = 0;
+        int maxHouse = 0;
+        try (ByteLineReader reader = new ByteLineReader(inputName)) {
+            // T = O(n)
+            while (reader.nextLine()) {
+                // Фамилия Имя - Улица Дом
+                ByteBuffer line = reader.buffer();
+                int start = reader.lineStart();
+                int end = reader.lineEnd();
+                int surnameEnd = ByteLineReader.indexOf(line, start, end, (byte) ' ');
+                int nameEnd = surnameEnd < 0 ? -1 : ByteLineReader.indexOf(line, surnameEnd + 1, end, (byte) ' ');
+                int streetEnd = ByteLineReader.lastIndexOf(line, start, end, (byte) ' ');
+                if (surnameEnd <= start || nameEnd <= surnameEnd + 1 || streetEnd <= nameEnd + 3
+                        || line.get(nameEnd + 1) != '-' || line.get(nameEnd + 2) != ' '
+                        || streetEnd + 1 == end || line.get(streetEnd + 1) == '-' || line.get(streetEnd + 1) == '+') {
+                    throw ByteLineReader.invalidFormat();
+                }
+                if (size == street.length) {
+                    street = Arrays.copyOf(street, 2 * size);
+                    house = Arrays.copyOf(house, 2 * size);
+                    surname = Arrays.copyOf(surname, 2 * size);
+                    name = Arrays.copyOf(name, 2 * size);
+                }
+                surname[size] = surnames.id(line, start, surnameEnd);
+                name[size] = names.id(line, surnameEnd + 1, nameEnd);
+                street[size] = streets.id(line, nameEnd + 3, streetEnd);
+                house[size] = ByteLineReader.parseInt(line, streetEnd + 1, end);
+                maxHouse = Math.max(maxHouse, house[size]);
+                size++;
+            }
+        }
+
+        // T = O(k * log k): номера в порядке появления -> места в алфавитном порядке
+        int[] streetRank = streets.ranks();
+        int[] surnameRank = surnames.ranks();
+        int[] nameRank = names.ranks();
+
+        // упакованный ключ (улица, дом, фамилия, имя); T = O(n) поразрядной сортировкой
+        int houseBits = bitLength(maxHouse);
+        int nameBits = bitLength(names.size() - 1);
+        int personBits = bitLength(surnames.size() - 1) + nameBits;
+        int[] order = new int[size];
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+            keys[i] = (long) surnameRank[surname[i]] << nameBits | nameRank[name[i]];
+        }
+        if (size > 1) {
+            if (bitLength(streets.size() - 1) + houseBits + personBits < Long.SIZE) {
+                for (int i = 0; i < size; i++) {
+                    keys[i] |= ((long) streetRank[street[i]] << houseBits | house[i]) << personBits;
+                }
+                Sorts.radixSort(keys, order);
+            } else {
+                // в один long не помещается: сначала по жителю, затем устойчиво по адресу
+                Sorts.radixSort(keys, order);
+                for (int i = 0; i < size; i++) {
+                    keys[i] = (long) streetRank[street[order[i]]] << houseBits | house[order[i]];
+                }
+                Sorts.radixSort(keys, order);
+            }
+        }
+
+        // T = O(n): жители одного дома идут подряд
+        byte[] lineSeparator = System.lineSeparator().getBytes();
+        byte[] digits = new byte[10];
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(outputName), 1 << 16)) {
+            for (int i = 0; i < size; i++) {
+                int record = order[i];
+                if (i > 0 && street[record] == street[order[i - 1]] && house[record] == house[order[i - 1]]) {
+                    output.write(',');
+                    output.write(' ');
+                } else {
+                    if (i > 0) output.write(lineSeparator);
+                    streets.write(street[record], output);
+                    output.write(' ');
+                    int position = digits.length;
+                    int value = house[record];
+                    do {
+                        digits[--position] = (byte) ('0' + value % 10);
+                        value /= 10;
+                    } while (value > 0);
+                    output.write(digits, position, digits.length - position);
+                    output.write(' ');
+                    output.write('-');
+                    output.write(' ');
+                }
+                surnames.write(surname[record], output);
+                output.write(' ');
+                names.write(name[record], output);
+            }
+            if (size > 0) output.write(lineSeparator);
+        }
+    }
+
+    // кол-во бит, нужное для чисел от 0 до max
+    private static int bitLength(int max) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(max);
     }
 
     /**
@@ -162,37 +266,125 @@ public class JavaTasks {
      * 121.3
      */
     // Трудоемкость O(n)
-    // Ресурсоемкость O(n)
+    // Ресурсоемкость O(1)
     static public void sortTemperatures(String inputName, String outputName) throws IOException {
-        File inputFile = new File(inputName);
-        File outputFile = new File(outputName);
-        if (!outputFile.exists())           // если такой файл не найден, создаем его
-            outputFile.createNewFile();
-
-        int[] tempArr = new int[5000 + 2730 + 1];
-        int stringCounter = 0;
-        try (BufferedReader br = new BufferedReader(new FileReader(inputFile));
-        PrintWriter writer = new PrintWriter(new File(outputName))) {
-            String line = br.readLine();
+        sortTemperatures(inputName, outputName, new SortWorkspace());
+    }
+
+    static void sortTemperatures(String inputName, String outputName, SortWorkspace workspace) throws IOException {
+        int[] tempArr = workspace.temperatureCounts(MAX_TEMPERATURE - MIN_TEMPERATURE + 1);
+        try (ByteLineReader reader = workspace.reader(inputName)) {
             int i;
-            while (line != null) {
-                if (!line.isEmpty()) {
-                    i = Integer.parseInt(line.replaceAll("\\.", ""));
-                    if (i < -2730 || i > 5000) {
+            while (reader.nextLine()) {
+                if (!reader.isEmptyLine()) {
+                    i = reader.parseTenths();       // температура в десятых градуса
+                    if (i < MIN_TEMPERATURE || i > MAX_TEMPERATURE) {
                         throw new IllegalArgumentException("Неверный формат данных");
                     }
-                    tempArr[i + 2730]++;
-                    stringCounter++;
+                    tempArr[i - MIN_TEMPERATURE]++;
                 }
-                line = br.readLine();
             }
+        }
+        try (ByteLineWriter writer = workspace.writer(outputName)) {
+            writeHistogram(tempArr, j -> TEMPERATURE_LINES[j], writer);
+        }
+    }
 
-            for (int j = 0; j < tempArr.length; j++) {
-                while (tempArr[j] > 0) {
-                    writer.println((j - 2730) / 10.0);
-                    tempArr[j]--;
+    // границы температур в десятых градуса
+    private static final int MIN_TEMPERATURE = -2730;
+    private static final int MAX_TEMPERATURE = 5000;
+
+    // файлы больше отображаются в память несколькими кусками
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    // заранее отформатированные строки вывода для каждой температуры, с переводом строки
+    private static final byte[][] TEMPERATURE_LINES = new byte[MAX_TEMPERATURE - MIN_TEMPERATURE + 1][];
+
+    static {
+        for (int t = MIN_TEMPERATURE; t <= MAX_TEMPERATURE; t++) {
+            String line = (t < 0 ? "-" : "") + Math.abs(t) / 10 + "." + Math.abs(t) % 10 + System.lineSeparator();
+            TEMPERATURE_LINES[t - MIN_TEMPERATURE] = line.getBytes();
+        }
+    }
+
+    /**
+     * Параллельный вариант сортировки температур на общем пуле {@link ForkJoinPool#commonPool()}.
+     */
+    // Трудоемкость O(n / p)
+    // Ресурсоемкость O(p)
+    static public void sortTemperatures(String inputName, String outputName, int parallelism) throws IOException {
+        sortTemperatures(inputName, outputName, parallelism, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный вариант сортировки температур.
+     *
+     * Файл отображается в память и делится на parallelism кусков по границам строк;
+     * по каждому куску на executor считается своя гистограмма, затем гистограммы складываются.
+     * Пул executor не закрывается, так что его можно делить между вызовами (см. {@link SegmentTasks}).
+     */
+    // Трудоемкость O(n / p)
+    // Ресурсоемкость O(p)
+    static public void sortTemperatures(String inputName, String outputName, int parallelism, Executor executor)
+            throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism = " + parallelism);
+        }
+        int[] tempArr = new int[MAX_TEMPERATURE - MIN_TEMPERATURE + 1];
+        try (FileChannel channel = FileChannel.open(Path.of(inputName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int segments = (int) Math.max(parallelism, (size + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE);
+            long[] bounds = ByteLineReader.lineBounds(channel, segments);
+            List<Callable<int[]>> tasks = new ArrayList<>();
+            for (int segment = 0; segment < segments; segment++) {
+                long start = bounds[segment];
+                long end = bounds[segment + 1];
+                if (start < end) {
+                    tasks.add(() -> countTemperatures(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start)));
                 }
             }
+            for (int[] counts : SegmentTasks.invokeAll(tasks, executor)) {
+                for (int j = 0; j < tempArr.length; j++) {
+                    tempArr[j] += counts[j];
+                }
+            }
+        }
+        try (ByteLineWriter writer = new ByteLineWriter(outputName)) {
+            writeHistogram(tempArr, j -> TEMPERATURE_LINES[j], writer);
+        }
+    }
+
+    // гистограмма температур в отображённом куске файла
+    private static int[] countTemperatures(ByteBuffer segment) {
+        int[] counts = new int[MAX_TEMPERATURE - MIN_TEMPERATURE + 1];
+        int limit = segment.limit();
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && segment.get(i) != '\n') continue;
+            int lineEnd = i;
+            if (lineEnd > lineStart && segment.get(lineEnd - 1) == '\r') lineEnd--;
+            if (lineEnd > lineStart) {
+                int t = ByteLineReader.parseTenths(segment, lineStart, lineEnd);
+                if (t < MIN_TEMPERATURE || t > MAX_TEMPERATURE) {
+                    throw new IllegalArgumentException("Неверный формат данных");
+                }
+                counts[t - MIN_TEMPERATURE]++;
+            }
+            lineStart = i + 1;
+        }
+        return counts;
+    }
+
+    // Вывод гистограммы: строка для j-го значения формируется один раз (line.apply(j))
+    // и копируется в буфер вывода столько раз, сколько это значение встретилось
+    private static void writeHistogram(int[] counts, IntFunction<byte[]> line, ByteLineWriter writer)
+            throws IOException {
+        for (int j = 0; j < counts.length; j++) {
+            if (counts[j] == 0) continue;
+            byte[] bytes = line.apply(j);
+            for (int count = counts[j]; count > 0; count--) {
+                writer.write(bytes);
+            }
         }
     }
 
@@ -227,59 +419,56 @@ public class JavaTasks {
      */
 
     // Трудоемкость O(n)
-    // Ресурсоемкость O(n)
+    // Ресурсоемкость O(k), где k - кол-во различных чисел
     static public void sortSequence(String inputName, String outputName) throws IOException {
-        File inputFile = new File(inputName);
-        List<Integer> numbersArr = new ArrayList<>(); // сюда запишем все числа
-        // Считываем файл, заполняем массив числами
-        int min = Integer.MAX_VALUE;
-        int max = 0;
-        int number;
-        try (BufferedReader br = new BufferedReader(new FileReader(inputFile))) {
-            String line = br.readLine();    // в этой строке хранится очередная строка из файла
-            // T = O(n), n - кол-во строк в файле
-            while (line != null) {
-                if (!line.isEmpty()) {
-                    number = Integer.parseInt(line);
-                    if (number > max) max = number;
-                    if (number < min) min = number;
-                    numbersArr.add(number);
-                }
-                line = br.readLine();
-            }
-        }
+        sortSequence(inputName, outputName, new SortWorkspace());
+    }
 
-        // создаем объект - выходной файл
-        File outputFile = new File(outputName);
-        if (!outputFile.exists())           // если такой файл не найден, создаем его
-            outputFile.createNewFile();
-
-        if (!numbersArr.isEmpty()) {
-            Map<Integer, Integer> count = new HashMap<>();
-            int temp;
-            int mostFreq = 0;                       // сколько раз встретился
-            int mostFreqNumber = numbersArr.get(0); // самый часто втречающийся элемент
-            for (int element : numbersArr) {
-                temp = count.get(element) == null ? 1 : count.get(element) + 1;
-                count.put(element, temp);
-                if (count.get(element) > mostFreq
-                        || (count.get(element) == mostFreq && element < mostFreqNumber)) {
-                    mostFreq = count.get(element);
+    static void sortSequence(String inputName, String outputName, SortWorkspace workspace) throws IOException {
+        // Два прохода по файлу вместо хранения всей последовательности в памяти:
+        // первый считает вхождения и находит самое частое (минимальное из них) число,
+        // второй заново читает файл и сразу выводит все остальные числа
+        IntCounterMap count = workspace.counter();
+        int mostFreq = 0;                       // сколько раз встретился
+        int mostFreqNumber = 0;                 // самый часто втречающийся элемент
+        try (ByteLineReader reader = workspace.reader(inputName)) {
+            // T = O(n), n - кол-во строк в файле
+            while (reader.nextLine()) {
+                if (reader.isEmptyLine()) continue;
+                int element = reader.parseInt();
+                int temp = count.increment(element);
+                if (temp > mostFreq || (temp == mostFreq && element < mostFreqNumber)) {
+                    mostFreq = temp;
                     mostFreqNumber = element;
                 }
             }
+        }
 
-            // T = O(n)
-            try (PrintWriter writer = new PrintWriter(outputFile)) {
-                for (int element : numbersArr) {
+        // T = O(n)
+        // второй проход снова читает inputName, поэтому при совпадении файлов вывод идёт во временный файл,
+        // который затем заменяет исходный: иначе открытие на запись обнулило бы ещё не прочитанный вход
+        Path output = Path.of(outputName);
+        boolean inPlace = Files.exists(output) && Files.isSameFile(Path.of(inputName), output);
+        Path target = inPlace ? Files.createTempFile(output.toAbsolutePath().getParent(), "sequence", ".tmp") : output;
+        try {
+            try (ByteLineReader reader = workspace.reader(inputName);
+                 ByteLineWriter writer = workspace.writer(target.toString())) {
+                while (reader.nextLine()) {
+                    if (reader.isEmptyLine()) continue;
+                    int element = reader.parseInt();
                     if (element == mostFreqNumber) continue;
-                    writer.println(element);
+                    writer.writeInt(element);
+                    writer.newLine();
                 }
                 while (mostFreq > 0) {
-                    writer.println(mostFreqNumber);
+                    writer.writeInt(mostFreqNumber);
+                    writer.newLine();
                     mostFreq--;
                 }
             }
+            if (inPlace) Files.move(target, output, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            if (inPlace) Files.deleteIfExists(target);
         }
     }
 
@@ -298,7 +487,143 @@ public class JavaTasks {
      *
      * Результат: second = [1 3 4 9 9 13 15 20 23 28]
      */
+
+    // Трудоемкость O(n + m) в худшем случае, O(k * log((n + m) / k)) сравнений при k чередующихся сериях
+    // Ресурсоемкость O(1)
     static <T extends Comparable<T>> void mergeArrays(T[] first, T[] second) {
-        throw new NotImplementedError();
+        // Слияние идёт с начала: свободные ячейки second стоят в начале, позиция записи i + j - first.length
+        // никогда не обгоняет j, и ещё не взятые элементы second не затираются.
+        // Серии из одного массива ищутся галопом и переносятся одним куском;
+        // равные элементы first ставятся перед элементами second
+        if (second.length < first.length) throw new IllegalArgumentException();
+        int i = 0;                          // first[i, first.length) ещё не взяты
+        int j = first.length;               // second[j, second.length) ещё не взяты
+        while (i < first.length && j < second.length) {
+            int to = i + j - first.length;
+            if (second[j].compareTo(first[i]) < 0) {
+                // сколько следующих элементов second меньше first[i]
+                int count = gallop(first[i], second, j, second.length, false);
+                System.arraycopy(second, j, second, to, count);
+                j += count;
+            } else {
+                // сколько следующих элементов first не больше second[j]
+                int count = gallop(second[j], first, i, first.length, true);
+                System.arraycopy(first, i, second, to, count);
+                i += count;
+            }
+        }
+        // если остались элементы second, они уже на своих местах
+        System.arraycopy(first, i, second, i + j - first.length, first.length - i);
+    }
+
+    /**
+     * Слияние отсортированного first с отсортированным хвостом second[first.length, second.length)
+     * без упаковки элементов: аналог mergeArrays(T[], T[]) для int
+     */
+    static void mergeArrays(int[] first, int[] second) {
+        if (second.length < first.length) throw new IllegalArgumentException();
+        int i = 0;
+        int j = first.length;
+        while (i < first.length && j < second.length) {
+            int to = i + j - first.length;
+            if (second[j] < first[i]) {
+                int count = gallop(first[i], second, j, second.length, false);
+                System.arraycopy(second, j, second, to, count);
+                j += count;
+            } else {
+                int count = gallop(second[j], first, i, first.length, true);
+                System.arraycopy(first, i, second, to, count);
+                i += count;
+            }
+        }
+        System.arraycopy(first, i, second, i + j - first.length, first.length - i);
+    }
+
+    /**
+     * Аналог mergeArrays(T[], T[]) для long
+     */
+    static void mergeArrays(long[] first, long[] second) {
+        if (second.length < first.length) throw new IllegalArgumentException();
+        int i = 0;
+        int j = first.length;
+        while (i < first.length && j < second.length) {
+            int to = i + j - first.length;
+            if (second[j] < first[i]) {
+                int count = gallop(first[i], second, j, second.length, false);
+                System.arraycopy(second, j, second, to, count);
+                j += count;
+            } else {
+                int count = gallop(second[j], first, i, first.length, true);
+                System.arraycopy(first, i, second, to, count);
+                i += count;
+            }
+        }
+        System.arraycopy(first, i, second, i + j - first.length, first.length - i);
+    }
+
+    // Галоп: сколько первых элементов a[from, to) меньше key (или не больше key при inclusive).
+    // a[from] заведомо подходит. Сначала проверяются элементы на расстоянии 1, 3, 7, 15, ... от начала,
+    // затем найденный промежуток делится пополам: O(log k) сравнений для куска длины k
+    private static <T extends Comparable<T>> int gallop(T key, T[] a, int from, int to, boolean inclusive) {
+        int length = to - from;
+        int low = 1, high = length;         // low <= ответ <= high
+        for (int probe = 1; probe < length; probe = 2 * probe + 1) {
+            if (!precedes(a[from + probe], key, inclusive)) {
+                high = probe;
+                break;
+            }
+            low = probe + 1;
+        }
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (precedes(a[from + middle], key, inclusive)) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    private static <T extends Comparable<T>> boolean precedes(T element, T key, boolean inclusive) {
+        int comparison = element.compareTo(key);
+        return inclusive ? comparison <= 0 : comparison < 0;
+    }
+
+    private static int gallop(int key, int[] a, int from, int to, boolean inclusive) {
+        int length = to - from;
+        int low = 1, high = length;
+        for (int probe = 1; probe < length; probe = 2 * probe + 1) {
+            int element = a[from + probe];
+            if (inclusive ? element > key : element >= key) {
+                high = probe;
+                break;
+            }
+            low = probe + 1;
+        }
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int element = a[from + middle];
+            if (inclusive ? element <= key : element < key) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    private static int gallop(long key, long[] a, int from, int to, boolean inclusive) {
+        int length = to - from;
+        int low = 1, high = length;
+        for (int probe = 1; probe < length; probe = 2 * probe + 1) {
+            long element = a[from + probe];
+            if (inclusive ? element > key : element >= key) {
+                high = probe;
+                break;
+            }
+            low = probe + 1;
+        }
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long element = a[from + middle];
+            if (inclusive ? element <= key : element < key) low = middle + 1;
+            else high = middle;
+        }
+        return low;
     }
 }
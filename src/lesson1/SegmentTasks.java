@@ -0,0 +1,70 @@
+package lesson1;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Выполнение независимых задач (например, по кускам одного файла) на общем пуле потоков.
+ *
+ * Пул не создаётся и не закрывается: его передаёт вызывающий, так что повторные вызовы
+ * и разные задачи делят одни и те же потоки. Задачи оборачиваются в {@link FutureTask},
+ * поэтому ошибка задачи пробрасывается тем же объектом исключения, что и был брошен
+ * (get() у задач ForkJoinPool бросает его копию с другим сообщением).
+ * Первую задачу выполняет вызывающий поток, а затем -- все задачи, которые пул ещё не начал,
+ * так что вызов завершается, даже если все потоки пула заняты или он сам выполняется в этом пуле.
+ */
+public class SegmentTasks {
+
+    private SegmentTasks() {
+    }
+
+    /**
+     * Результаты задач tasks в том же порядке
+     */
+    // Трудоемкость O(сумма задач / p)
+    // Ресурсоемкость O(tasks.size)
+    public static <T> List<T> invokeAll(List<? extends Callable<T>> tasks, Executor executor) throws IOException {
+        List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(new FutureTask<>(task));
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (int i = 1; i < futures.size(); i++) {
+                try {
+                    executor.execute(futures.get(i));
+                } catch (RejectedExecutionException e) {
+                    // выполнится ниже в вызывающем потоке
+                    break;
+                }
+            }
+            for (FutureTask<T> future : futures) {
+                // ничего не делает, если задачу уже выполняет или выполнил пул
+                future.run();
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        } finally {
+            // не начатые задачи после ошибки не нужны
+            for (FutureTask<T> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+}
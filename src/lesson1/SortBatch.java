@@ -0,0 +1,138 @@
+package lesson1;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пакетная сортировка множества файлов задачами из {@link JavaTasks}.
+ *
+ * Задания выполняются parallelism рабочими потоками: каждый поток берёт следующее ещё не взятое задание
+ * и держит свой {@link SortWorkspace}, так что буферы чтения и записи, гистограммы и счётчик
+ * заводятся один раз на поток, а не на файл. Ошибка в одном задании (неверный формат, нет файла)
+ * не прерывает остальные: она возвращается в результате задания вместе с временем выполнения.
+ */
+@SuppressWarnings("WeakerAccess")
+public class SortBatch {
+
+    public enum Task {
+        TIMES, TEMPERATURES, SEQUENCE, ADDRESSES
+    }
+
+    public static class Job {
+        public final String inputName;
+        public final String outputName;
+        public final Task task;
+
+        public Job(String inputName, String outputName, Task task) {
+            this.inputName = inputName;
+            this.outputName = outputName;
+            this.task = task;
+        }
+
+        @Override
+        public String toString() {
+            return task + ": " + inputName + " -> " + outputName;
+        }
+    }
+
+    public static class Result {
+        public final Job job;
+        // время выполнения задания в наносекундах
+        public final long time;
+        // null, если задание выполнено успешно
+        public final Exception error;
+
+        Result(Job job, long time, Exception error) {
+            this.job = job;
+            this.time = time;
+            this.error = error;
+        }
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            return job + " (" + time / 1000 + " us)" + (error == null ? "" : ": " + error);
+        }
+    }
+
+    private SortBatch() {
+    }
+
+    /**
+     * Выполнение заданий jobs не более чем в parallelism потоках.
+     * Результаты возвращаются в том же порядке, что и задания
+     */
+    // Трудоемкость O(N / p), N - суммарный размер файлов
+    // Ресурсоемкость O(p + jobs.size)
+    public static List<Result> run(List<Job> jobs, int parallelism) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism = " + parallelism);
+        }
+        Result[] results = new Result[jobs.size()];
+        int workers = Math.min(parallelism, jobs.size());
+        if (workers == 0) return List.of();
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            SortWorkspace workspace = new SortWorkspace();
+            for (int i = next.getAndIncrement(); i < results.length; i = next.getAndIncrement()) {
+                results[i] = execute(jobs.get(i), workspace);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(worker));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+        return Arrays.asList(results);
+    }
+
+    private static Result execute(Job job, SortWorkspace workspace) {
+        long start = System.nanoTime();
+        Exception error = null;
+        try {
+            switch (job.task) {
+                case TIMES:
+                    JavaTasks.sortTimes(job.inputName, job.outputName, workspace);
+                    break;
+                case TEMPERATURES:
+                    JavaTasks.sortTemperatures(job.inputName, job.outputName, workspace);
+                    break;
+                case SEQUENCE:
+                    JavaTasks.sortSequence(job.inputName, job.outputName, workspace);
+                    break;
+                case ADDRESSES:
+                    JavaTasks.sortAddresses(job.inputName, job.outputName);
+                    break;
+            }
+        } catch (IOException | RuntimeException e) {
+            error = e;
+        }
+        return new Result(job, System.nanoTime() - start, error);
+    }
+}
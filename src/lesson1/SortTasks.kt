@@ -63,7 +63,7 @@ fun sortTimes(inputName: String, outputName: String) {
  * В случае обнаружения неверного формата файла бросить любое исключение.
  */
 fun sortAddresses(inputName: String, outputName: String) {
-    TODO()
+    JavaTasks.sortAddresses(inputName, outputName)
 }
 
 /**
@@ -148,6 +148,51 @@ fun sortSequence(inputName: String, outputName: String) {
  * Результат: second = [1 3 4 9 9 13 15 20 23 28]
  */
 fun <T : Comparable<T>> mergeArrays(first: Array<T>, second: Array<T?>) {
-    TODO()
+    // слияние с начала: позиция записи i + j - first.size никогда не обгоняет j;
+    // серии из одного массива ищутся галопом и переносятся одним куском
+    require(second.size >= first.size)
+    var i = 0                   // first[i, first.size) ещё не взяты
+    var j = first.size          // second[j, second.size) ещё не взяты
+    while (i < first.size && j < second.size) {
+        val to = i + j - first.size
+        if (second[j]!! < first[i]) {
+            val count = gallop(first[i], second, j, second.size, inclusive = false)
+            second.copyInto(second, to, j, j + count)
+            j += count
+        } else {
+            val count = gallop(second[j]!!, first, i, first.size, inclusive = true)
+            first.copyInto(second, to, i, i + count)
+            i += count
+        }
+    }
+    // если остались элементы second, они уже на своих местах
+    first.copyInto(second, i + j - first.size, i, first.size)
+}
+
+// сколько первых элементов a[from, to) меньше key (или не больше key при inclusive); a[from] заведомо подходит
+private fun <T : Comparable<T>> gallop(key: T, a: Array<out T?>, from: Int, to: Int, inclusive: Boolean): Int {
+    fun precedes(element: T): Boolean {
+        val comparison = element.compareTo(key)
+        return if (inclusive) comparison <= 0 else comparison < 0
+    }
+
+    val length = to - from
+    var low = 1
+    var high = length
+    var probe = 1
+    while (probe < length) {
+        if (!precedes(a[from + probe]!!)) {
+            high = probe
+            break
+        }
+        low = probe + 1
+        probe = 2 * probe + 1
+    }
+    while (low < high) {
+        val middle = (low + high) ushr 1
+        if (precedes(a[from + middle]!!)) low = middle + 1
+        else high = middle
+    }
+    return low
 }
 
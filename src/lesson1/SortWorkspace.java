@@ -0,0 +1,60 @@
+package lesson1;
+
+import lesson5.IntCounterMap;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Буферы и счётчики задач сортировки файлов из {@link JavaTasks}, которые можно переиспользовать
+ * от файла к файлу: буферы чтения и записи, гистограммы времён и температур, счётчик чисел.
+ * Всё заводится при первом обращении. Экземпляр не потокобезопасен -- по одному на поток.
+ */
+class SortWorkspace {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private byte[] readBuffer = null;
+
+    private byte[] writeBuffer = null;
+
+    private int[] timeCounts = null;
+
+    private int[] temperatureCounts = null;
+
+    private IntCounterMap counter = null;
+
+    ByteLineReader reader(String fileName) throws IOException {
+        if (readBuffer == null) readBuffer = new byte[BUFFER_SIZE];
+        return new ByteLineReader(fileName, readBuffer);
+    }
+
+    ByteLineWriter writer(String fileName) throws IOException {
+        if (writeBuffer == null) writeBuffer = new byte[BUFFER_SIZE];
+        return new ByteLineWriter(fileName, writeBuffer);
+    }
+
+    // обнулённая гистограмма из size счётчиков
+    int[] timeCounts(int size) {
+        timeCounts = cleared(timeCounts, size);
+        return timeCounts;
+    }
+
+    int[] temperatureCounts(int size) {
+        temperatureCounts = cleared(temperatureCounts, size);
+        return temperatureCounts;
+    }
+
+    private static int[] cleared(int[] counts, int size) {
+        if (counts == null || counts.length != size) return new int[size];
+        Arrays.fill(counts, 0);
+        return counts;
+    }
+
+    // пустой счётчик
+    IntCounterMap counter() {
+        if (counter == null) counter = new IntCounterMap();
+        else counter.clear();
+        return counter;
+    }
+}
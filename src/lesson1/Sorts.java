@@ -1,8 +1,14 @@
 package lesson1;
 
 import java.util.Arrays;
-import java.util.Calendar;
-import java.util.Random;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 @SuppressWarnings("WeakerAccess")
 public class Sorts {
@@ -20,10 +26,14 @@ public class Sorts {
     }
 
     public static void insertionSort(int[] elements) {
-        for (int i = 1; i < elements.length; i++) {
+        insertionSort(elements, 0, elements.length);
+    }
+
+    private static void insertionSort(int[] elements, int begin, int end) {
+        for (int i = begin + 1; i < end; i++) {
             int current = elements[i];
             int j = i - 1;
-            for (; j >= 0; j--) {
+            for (; j >= begin; j--) {
                 if (elements[j] > current) elements[j+1] = elements[j];
                 else break;
             }
@@ -57,6 +67,141 @@ public class Sorts {
         mergeSort(elements, 0, elements.length);
     }
 
+    // отрезки не длиннее этого сортируются вставками
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    // отрезки не длиннее этого сортируются и сливаются в одном потоке
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Параллельная сортировка слиянием на ForkJoinPool из parallelism потоков.
+     *
+     * Вспомогательный буфер выделяется один раз, и уровни рекурсии поочерёдно
+     * сливают данные из массива в буфер и обратно.
+     */
+    // Трудоемкость O(n * log n / p)
+    // Ресурсоемкость O(n)
+    public static void parallelMergeSort(int[] elements, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism = " + parallelism);
+        }
+        if (elements.length <= 1) return;
+        int[] buffer = elements.clone();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new MergeSortTask(buffer, elements, 0, elements.length));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Сортирует отрезок [begin, end) массива source, результат кладёт в тот же отрезок target.
+    // Перед вызовом оба массива содержат на этом отрезке одни и те же элементы.
+    private static class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] source;
+        private final int[] target;
+        private final int begin;
+        private final int end;
+
+        MergeSortTask(int[] source, int[] target, int begin, int end) {
+            this.source = source;
+            this.target = target;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - begin <= INSERTION_SORT_THRESHOLD) {
+                insertionSort(target, begin, end);
+                return;
+            }
+            int middle = (begin + end) >>> 1;
+            if (end - begin <= PARALLEL_THRESHOLD) {
+                new MergeSortTask(target, source, begin, middle).compute();
+                new MergeSortTask(target, source, middle, end).compute();
+            } else {
+                invokeAll(new MergeSortTask(target, source, begin, middle),
+                        new MergeSortTask(target, source, middle, end));
+            }
+            new MergeTask(source, begin, middle, middle, end, target, begin).compute();
+        }
+    }
+
+    // Сливает отсортированные отрезки [leftBegin, leftEnd) и [rightBegin, rightEnd) массива source
+    // в target, начиная с позиции to. Большие отрезки делятся по медиане большего из них.
+    private static class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] source;
+        private final int leftBegin, leftEnd, rightBegin, rightEnd;
+        private final int[] target;
+        private final int to;
+
+        MergeTask(int[] source, int leftBegin, int leftEnd, int rightBegin, int rightEnd, int[] target, int to) {
+            this.source = source;
+            this.leftBegin = leftBegin;
+            this.leftEnd = leftEnd;
+            this.rightBegin = rightBegin;
+            this.rightEnd = rightEnd;
+            this.target = target;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftEnd - leftBegin;
+            int rightLength = rightEnd - rightBegin;
+            if (leftLength + rightLength <= PARALLEL_THRESHOLD) {
+                merge(source, leftBegin, leftEnd, rightBegin, rightEnd, target, to);
+                return;
+            }
+            int leftMiddle, rightMiddle;
+            if (leftLength >= rightLength) {
+                leftMiddle = (leftBegin + leftEnd) >>> 1;
+                rightMiddle = lowerBound(source, rightBegin, rightEnd, source[leftMiddle]);
+            } else {
+                rightMiddle = (rightBegin + rightEnd) >>> 1;
+                leftMiddle = upperBound(source, leftBegin, leftEnd, source[rightMiddle]);
+            }
+            int split = to + (leftMiddle - leftBegin) + (rightMiddle - rightBegin);
+            invokeAll(new MergeTask(source, leftBegin, leftMiddle, rightBegin, rightMiddle, target, to),
+                    new MergeTask(source, leftMiddle, leftEnd, rightMiddle, rightEnd, target, split));
+        }
+    }
+
+    private static void merge(int[] source, int leftBegin, int leftEnd, int rightBegin, int rightEnd,
+                              int[] target, int to) {
+        int li = leftBegin, ri = rightBegin;
+        while (li < leftEnd && ri < rightEnd) {
+            target[to++] = source[li] <= source[ri] ? source[li++] : source[ri++];
+        }
+        System.arraycopy(source, li, target, to, leftEnd - li);
+        System.arraycopy(source, ri, target, to + leftEnd - li, rightEnd - ri);
+    }
+
+    // первая позиция в [begin, end), где элемент >= key
+    private static int lowerBound(int[] elements, int begin, int end, int key) {
+        while (begin < end) {
+            int middle = (begin + end) >>> 1;
+            if (elements[middle] < key) begin = middle + 1;
+            else end = middle;
+        }
+        return begin;
+    }
+
+    // первая позиция в [begin, end), где элемент > key
+    private static int upperBound(int[] elements, int begin, int end, int key) {
+        while (begin < end) {
+            int middle = (begin + end) >>> 1;
+            if (elements[middle] <= key) begin = middle + 1;
+            else end = middle;
+        }
+        return begin;
+    }
+
     private static void heapify(int[] elements, int start, int length) {
         int left = 2 * start + 1;
         int right = left + 1;
@@ -91,39 +236,305 @@ public class Sorts {
         }
     }
 
-    private static final Random random = new Random(Calendar.getInstance().getTimeInMillis());
+    public static void bottomUpHeapSort(int[] elements) {
+        bottomUpHeapSort(elements, 2);
+    }
+
+    /**
+     * Пирамидальная сортировка с просеиванием снизу вверх (Флойд) в двоичной (arity = 2)
+     * или четверичной (arity = 4) куче.
+     *
+     * Освободившаяся вершина спускается до листа по наибольшим потомкам (без сравнения
+     * с просеиваемым элементом), а затем элемент поднимается на своё место, обычно на один-два уровня.
+     * Четверичная куча вдвое ниже, и все четыре потомка узла лежат в одной строке кэша,
+     * поэтому на больших массивах промахов кэша меньше.
+     */
+    // Трудоемкость O(n * log n)
+    // Ресурсоемкость O(1)
+    public static void bottomUpHeapSort(int[] elements, int arity) {
+        if (arity != 2 && arity != 4) {
+            throw new IllegalArgumentException("arity = " + arity);
+        }
+        bottomUpHeapSort(elements, 0, elements.length, arity == 4);
+    }
+
+    private static void bottomUpHeapSort(int[] elements, int begin, int end, boolean quaternary) {
+        int length = end - begin;
+        if (length <= 1) return;
+        for (int start = quaternary ? (length - 2) >> 2 : (length - 2) >> 1; start >= 0; start--) {
+            if (quaternary) siftDown4(elements, begin, start, elements[begin + start], length);
+            else siftDown2(elements, begin, start, elements[begin + start], length);
+        }
+        for (int j = length - 1; j >= 1; j--) {
+            int current = elements[begin + j];
+            elements[begin + j] = elements[begin];
+            if (quaternary) siftDown4(elements, begin, 0, current, j);
+            else siftDown2(elements, begin, 0, current, j);
+        }
+    }
+
+    // ставит element в вершину start двоичной кучи длины length, лежащей в elements начиная с offset
+    private static void siftDown2(int[] elements, int offset, int start, int element, int length) {
+        int hole = start;
+        int child;
+        // спуск "дырки" до листа по наибольшим потомкам
+        while ((child = 2 * hole + 1) < length) {
+            if (child + 1 < length && elements[offset + child + 1] > elements[offset + child]) {
+                child++;
+            }
+            elements[offset + hole] = elements[offset + child];
+            hole = child;
+        }
+        // подъём элемента от листа
+        while (hole > start) {
+            int parent = (hole - 1) >> 1;
+            if (elements[offset + parent] >= element) break;
+            elements[offset + hole] = elements[offset + parent];
+            hole = parent;
+        }
+        elements[offset + hole] = element;
+    }
+
+    // то же для четверичной кучи: потомки вершины i -- 4i + 1 .. 4i + 4
+    private static void siftDown4(int[] elements, int offset, int start, int element, int length) {
+        int hole = start;
+        int child;
+        while ((child = 4 * hole + 1) < length) {
+            int max = child;
+            int last = Math.min(child + 4, length);
+            for (int i = child + 1; i < last; i++) {
+                if (elements[offset + i] > elements[offset + max]) {
+                    max = i;
+                }
+            }
+            elements[offset + hole] = elements[offset + max];
+            hole = max;
+        }
+        while (hole > start) {
+            int parent = (hole - 1) >> 2;
+            if (elements[offset + parent] >= element) break;
+            elements[offset + hole] = elements[offset + parent];
+            hole = parent;
+        }
+        elements[offset + hole] = element;
+    }
+
+    /**
+     * Быстрая сортировка, реализована через introSort
+     */
+    public static void quickSort(int[] elements) {
+        introSort(elements);
+    }
+
+    /**
+     * Интроспективная сортировка.
+     *
+     * Быстрая сортировка с двумя опорными элементами, которые выбираются из пяти равноотстоящих
+     * элементов отрезка (без генератора случайных чисел). Элементы, равные опорным, собираются
+     * в отдельные части и больше не сортируются. Рекурсивно сортируются только две меньшие части,
+     * а по большей продолжается цикл, поэтому глубина стека не больше log n. Если число разбиений
+     * превышает 2 log n, отрезок досортировывается пирамидальной сортировкой по 4-арной куче.
+     */
+    // Трудоемкость O(n * log n) в худшем случае
+    // Ресурсоемкость O(log n)
+    public static void introSort(int[] elements) {
+        if (elements.length <= 1) return;
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(elements.length));
+        introSort(elements, 0, elements.length - 1, depthLimit);
+    }
+
+    private static void swap(int[] elements, int i, int j) {
+        int temp = elements[i];
+        elements[i] = elements[j];
+        elements[j] = temp;
+    }
+
+    // сортирует отрезок [min, max] включительно
+    private static void introSort(int[] elements, int min, int max, int depthLimit) {
+        while (max - min >= INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                bottomUpHeapSort(elements, min, max + 1, true);
+                return;
+            }
+            // пять равноотстоящих элементов, упорядоченных вставками
+            int seventh = (max - min + 1) / 7;
+            int e3 = (min + max) >>> 1;
+            int e2 = e3 - seventh, e1 = e2 - seventh;
+            int e4 = e3 + seventh, e5 = e4 + seventh;
+            int[] sample = { e1, e2, e3, e4, e5 };
+            for (int i = 1; i < sample.length; i++) {
+                int current = elements[sample[i]];
+                int j = i - 1;
+                for (; j >= 0 && elements[sample[j]] > current; j--) {
+                    elements[sample[j + 1]] = elements[sample[j]];
+                }
+                elements[sample[j + 1]] = current;
+            }
 
-    private static int partition(int[] elements, int min, int max) {
-        int x = elements[min + random.nextInt(max - min + 1)];
-        int left = min, right = max;
-        while (left <= right) {
-            while (elements[left] < x) {
-                left++;
+            int pivot1 = elements[e2];
+            int pivot2 = elements[e4];
+            swap(elements, e2, min);
+            swap(elements, e4, max);
+            // [min + 1, less) < pivot1, [less, k) из [pivot1, pivot2], (great, max - 1] > pivot2
+            int less = min + 1;
+            int great = max - 1;
+            for (int k = less; k <= great; k++) {
+                int x = elements[k];
+                if (x < pivot1) {
+                    swap(elements, k, less++);
+                } else if (x > pivot2) {
+                    while (elements[great] > pivot2 && k < great) {
+                        great--;
+                    }
+                    swap(elements, k, great--);
+                    if (elements[k] < pivot1) {
+                        swap(elements, k, less++);
+                    }
+                }
             }
-            while (elements[right] > x) {
-                right--;
+            less--;
+            great++;
+            swap(elements, min, less);
+            swap(elements, max, great);
+
+            // средняя часть: элементы, равные опорным, отодвигаем к краям, их сортировать не нужно
+            int middleMin = less + 1;
+            int middleMax = great - 1;
+            if (pivot1 == pivot2) {
+                middleMax = middleMin - 1;
+            } else {
+                for (int k = middleMin; k <= middleMax; k++) {
+                    int x = elements[k];
+                    if (x == pivot1) {
+                        swap(elements, k, middleMin++);
+                    } else if (x == pivot2) {
+                        while (elements[middleMax] == pivot2 && k < middleMax) {
+                            middleMax--;
+                        }
+                        swap(elements, k, middleMax--);
+                        if (elements[k] == pivot1) {
+                            swap(elements, k, middleMin++);
+                        }
+                    }
+                }
             }
-            if (left <= right) {
-                int temp = elements[left];
-                elements[left] = elements[right];
-                elements[right] = temp;
-                left++;
-                right--;
+
+            // рекурсия по двум меньшим частям, цикл по наибольшей
+            int leftSize = less - min;
+            int middleSize = middleMax - middleMin + 1;
+            int rightSize = max - great;
+            if (leftSize >= middleSize && leftSize >= rightSize) {
+                introSort(elements, middleMin, middleMax, depthLimit);
+                introSort(elements, great + 1, max, depthLimit);
+                max = less - 1;
+            } else if (middleSize >= rightSize) {
+                introSort(elements, min, less - 1, depthLimit);
+                introSort(elements, great + 1, max, depthLimit);
+                min = middleMin;
+                max = middleMax;
+            } else {
+                introSort(elements, min, less - 1, depthLimit);
+                introSort(elements, middleMin, middleMax, depthLimit);
+                min = great + 1;
             }
         }
-        return right;
+        insertionSort(elements, min, max + 1);
     }
 
-    private static void quickSort(int[] elements, int min, int max) {
-        if (min < max) {
-            int border = partition(elements, min, max);
-            quickSort(elements, min, border);
-            quickSort(elements, border + 1, max);
+    /**
+     * Порядковая статистика: k-й по возрастанию элемент (нумерация с нуля).
+     *
+     * Массив переставляется так, что на месте k стоит этот элемент, левее -- не большие, правее -- не меньшие.
+     * Introselect: разбиение на три части по медиане трёх, а если разбиений стало больше 2 log n,
+     * опорный элемент выбирается медианой медиан, что гарантирует линейное время.
+     */
+    // Трудоемкость O(n)
+    // Ресурсоемкость O(log n)
+    public static int select(int[] elements, int k) {
+        if (k < 0 || k >= elements.length) {
+            throw new IllegalArgumentException("k = " + k + ", length = " + elements.length);
         }
+        return select(elements, 0, elements.length - 1, k);
     }
 
-    public static void quickSort(int[] elements) {
-        quickSort(elements, 0, elements.length - 1);
+    private static int select(int[] elements, int min, int max, int k) {
+        int budget = 2 * (32 - Integer.numberOfLeadingZeros(max - min + 1));
+        while (max - min >= INSERTION_SORT_THRESHOLD) {
+            int pivot = budget-- > 0 ? medianOfThree(elements, min, max) : medianOfMedians(elements, min, max);
+            // [min, less) < pivot, [less, great] == pivot, (great, max] > pivot
+            int less = min, i = min, great = max;
+            while (i <= great) {
+                int x = elements[i];
+                if (x < pivot) swap(elements, less++, i++);
+                else if (x > pivot) swap(elements, i, great--);
+                else i++;
+            }
+            if (k < less) max = less - 1;
+            else if (k > great) min = great + 1;
+            else return pivot;
+        }
+        insertionSort(elements, min, max + 1);
+        return elements[k];
+    }
+
+    private static int medianOfThree(int[] elements, int min, int max) {
+        int a = elements[min], b = elements[(min + max) >>> 1], c = elements[max];
+        if (a < b) return b < c ? b : Math.max(a, c);
+        else return a < c ? a : Math.max(b, c);
+    }
+
+    // медианы пятёрок собираются в начало отрезка, и среди них рекурсивно ищется медиана
+    private static int medianOfMedians(int[] elements, int min, int max) {
+        int groups = 0;
+        for (int begin = min; begin <= max; begin += 5) {
+            int end = Math.min(begin + 5, max + 1);
+            insertionSort(elements, begin, end);
+            swap(elements, min + groups, (begin + end - 1) >>> 1);
+            groups++;
+        }
+        return select(elements, min, min + groups - 1, min + groups / 2);
+    }
+
+    /**
+     * k наименьших элементов в порядке возрастания (исходный массив не меняется).
+     *
+     * Хранится куча из k элементов с наибольшим в вершине; очередной элемент, меньший вершины,
+     * заменяет её и просеивается вниз.
+     */
+    // Трудоемкость O(n * log k)
+    // Ресурсоемкость O(k)
+    public static int[] topK(int[] elements, int k) {
+        if (k < 0 || k > elements.length) {
+            throw new IllegalArgumentException("k = " + k + ", length = " + elements.length);
+        }
+        int[] heap = Arrays.copyOf(elements, k);
+        if (k == 0) return heap;
+        buildHeap(heap);
+        for (int i = k; i < elements.length; i++) {
+            if (elements[i] < heap[0]) {
+                heap[0] = elements[i];
+                heapify(heap, 0, k);
+            }
+        }
+        heapSort(heap);
+        return heap;
+    }
+
+    /**
+     * Частичная сортировка: первые k позиций занимают k наименьших элементов по возрастанию,
+     * порядок остальных не определён.
+     */
+    // Трудоемкость O(n + k * log k)
+    // Ресурсоемкость O(log n)
+    public static void partialSort(int[] elements, int k) {
+        if (k < 0 || k > elements.length) {
+            throw new IllegalArgumentException("k = " + k + ", length = " + elements.length);
+        }
+        if (k == 0) return;
+        if (k < elements.length) {
+            select(elements, k - 1);
+        }
+        introSort(elements, 0, k - 1, 2 * (31 - Integer.numberOfLeadingZeros(k)));
     }
 
     public static int[] countingSort(int[] elements, int limit) {
@@ -141,4 +552,714 @@ public class Sorts {
         }
         return out;
     }
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+
+    public static void radixSort(int[] elements) {
+        radixSort(elements, new int[elements.length]);
+    }
+
+    /**
+     * Поразрядная сортировка (LSD) по байтам, работает на всём диапазоне int.
+     *
+     * buffer -- вспомогательный массив длины не меньше elements.length, его можно
+     * переиспользовать между вызовами. Проходы по разрядам, в которых у всех
+     * элементов одинаковый байт, пропускаются.
+     */
+    // Трудоемкость O(n)
+    // Ресурсоемкость O(1) помимо buffer
+    public static void radixSort(int[] elements, int[] buffer) {
+        int length = elements.length;
+        if (buffer.length < length) {
+            throw new IllegalArgumentException("buffer is too small: " + buffer.length + " < " + length);
+        }
+        if (length <= 1) return;
+        int passes = Integer.SIZE / RADIX_BITS;
+        // гистограммы всех разрядов считаем за один проход
+        int[][] count = new int[passes][RADIX];
+        for (int element : elements) {
+            for (int pass = 0; pass < passes; pass++) {
+                count[pass][digit(element, pass)]++;
+            }
+        }
+        int[] source = elements;
+        int[] target = buffer;
+        for (int pass = 0; pass < passes; pass++) {
+            int[] passCount = count[pass];
+            if (passCount[digit(source[0], pass)] == length) continue;
+            toOffsets(passCount);
+            for (int i = 0; i < length; i++) {
+                int element = source[i];
+                target[passCount[digit(element, pass)]++] = element;
+            }
+            int[] temp = source;
+            source = target;
+            target = temp;
+        }
+        if (source != elements) {
+            System.arraycopy(source, 0, elements, 0, length);
+        }
+    }
+
+    public static void radixSort(long[] elements) {
+        radixSort(elements, new long[elements.length]);
+    }
+
+    /**
+     * Поразрядная сортировка (LSD) по байтам для long, аналогична radixSort(int[], int[]).
+     */
+    // Трудоемкость O(n)
+    // Ресурсоемкость O(1) помимо buffer
+    public static void radixSort(long[] elements, long[] buffer) {
+        int length = elements.length;
+        if (buffer.length < length) {
+            throw new IllegalArgumentException("buffer is too small: " + buffer.length + " < " + length);
+        }
+        if (length <= 1) return;
+        int passes = Long.SIZE / RADIX_BITS;
+        int[][] count = new int[passes][RADIX];
+        for (long element : elements) {
+            for (int pass = 0; pass < passes; pass++) {
+                count[pass][digit(element, pass)]++;
+            }
+        }
+        long[] source = elements;
+        long[] target = buffer;
+        for (int pass = 0; pass < passes; pass++) {
+            int[] passCount = count[pass];
+            if (passCount[digit(source[0], pass)] == length) continue;
+            toOffsets(passCount);
+            for (int i = 0; i < length; i++) {
+                long element = source[i];
+                target[passCount[digit(element, pass)]++] = element;
+            }
+            long[] temp = source;
+            source = target;
+            target = temp;
+        }
+        if (source != elements) {
+            System.arraycopy(source, 0, elements, 0, length);
+        }
+    }
+
+    // байт номер pass; у старшего байта инвертируется знаковый бит, чтобы отрицательные шли первыми
+    private static int digit(int element, int pass) {
+        int digit = (element >>> (pass * RADIX_BITS)) & RADIX_MASK;
+        return pass == Integer.SIZE / RADIX_BITS - 1 ? digit ^ (RADIX >>> 1) : digit;
+    }
+
+    private static int digit(long element, int pass) {
+        int digit = (int) (element >>> (pass * RADIX_BITS)) & RADIX_MASK;
+        return pass == Long.SIZE / RADIX_BITS - 1 ? digit ^ (RADIX >>> 1) : digit;
+    }
+
+    // количества -> позиции начала каждой корзины
+    private static void toOffsets(int[] count) {
+        int sum = 0;
+        for (int j = 0; j < count.length; j++) {
+            int current = count[j];
+            count[j] = sum;
+            sum += current;
+        }
+    }
+
+    private static <T> void swap(T[] elements, int i, int j) {
+        T temp = elements[i];
+        elements[i] = elements[j];
+        elements[j] = temp;
+    }
+
+    private static <T> void insertionSort(T[] elements, int begin, int end, Comparator<? super T> comparator) {
+        for (int i = begin + 1; i < end; i++) {
+            T current = elements[i];
+            int j = i - 1;
+            for (; j >= begin; j--) {
+                if (comparator.compare(elements[j], current) > 0) elements[j + 1] = elements[j];
+                else break;
+            }
+            elements[j + 1] = current;
+        }
+    }
+
+    /**
+     * Устойчивая сортировка слиянием по comparator.
+     * Вспомогательный массив выделяется один раз, уровни рекурсии сливают данные поочерёдно в него и обратно.
+     */
+    // Трудоемкость O(n * log n)
+    // Ресурсоемкость O(n)
+    public static <T> void mergeSort(T[] elements, Comparator<? super T> comparator) {
+        if (elements.length <= 1) return;
+        T[] buffer = elements.clone();
+        mergeSort(buffer, elements, 0, elements.length, comparator);
+    }
+
+    // Сортирует отрезок [begin, end) массива source, результат кладёт в тот же отрезок target.
+    // Перед вызовом оба массива содержат на этом отрезке одни и те же элементы.
+    private static <T> void mergeSort(T[] source, T[] target, int begin, int end, Comparator<? super T> comparator) {
+        if (end - begin <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(target, begin, end, comparator);
+            return;
+        }
+        int middle = (begin + end) >>> 1;
+        mergeSort(target, source, begin, middle, comparator);
+        mergeSort(target, source, middle, end, comparator);
+        // половины уже идут по порядку
+        if (comparator.compare(source[middle - 1], source[middle]) <= 0) {
+            System.arraycopy(source, begin, target, begin, end - begin);
+            return;
+        }
+        int li = begin, ri = middle, i = begin;
+        while (li < middle && ri < end) {
+            target[i++] = comparator.compare(source[li], source[ri]) <= 0 ? source[li++] : source[ri++];
+        }
+        System.arraycopy(source, li, target, i, middle - li);
+        System.arraycopy(source, ri, target, i + middle - li, end - ri);
+    }
+
+    /**
+     * Быстрая сортировка по comparator (неустойчивая).
+     *
+     * Опорный элемент -- медиана трёх, разбиение на три части (меньше, равны, больше опорного).
+     * Рекурсия только по меньшей части, при слишком глубоком разбиении -- пирамидальная сортировка.
+     */
+    // Трудоемкость O(n * log n) в худшем случае
+    // Ресурсоемкость O(log n)
+    public static <T> void quickSort(T[] elements, Comparator<? super T> comparator) {
+        if (elements.length <= 1) return;
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(elements.length));
+        quickSort(elements, 0, elements.length - 1, depthLimit, comparator);
+    }
+
+    // сортирует отрезок [min, max] включительно
+    private static <T> void quickSort(T[] elements, int min, int max, int depthLimit,
+                                      Comparator<? super T> comparator) {
+        while (max - min >= INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(elements, min, max + 1, comparator);
+                return;
+            }
+            T first = elements[min], middle = elements[(min + max) >>> 1], last = elements[max];
+            T pivot;
+            if (comparator.compare(first, middle) < 0) {
+                if (comparator.compare(middle, last) < 0) pivot = middle;
+                else pivot = comparator.compare(first, last) < 0 ? last : first;
+            } else {
+                if (comparator.compare(first, last) < 0) pivot = first;
+                else pivot = comparator.compare(middle, last) < 0 ? last : middle;
+            }
+            // [min, less) < pivot, [less, i) == pivot, (great, max] > pivot
+            int less = min, i = min, great = max;
+            while (i <= great) {
+                int comparison = comparator.compare(elements[i], pivot);
+                if (comparison < 0) swap(elements, less++, i++);
+                else if (comparison > 0) swap(elements, i, great--);
+                else i++;
+            }
+            if (less - min < max - great) {
+                quickSort(elements, min, less - 1, depthLimit, comparator);
+                min = great + 1;
+            } else {
+                quickSort(elements, great + 1, max, depthLimit, comparator);
+                max = less - 1;
+            }
+        }
+        insertionSort(elements, min, max + 1, comparator);
+    }
+
+    /**
+     * Пирамидальная сортировка по comparator с просеиванием снизу вверх
+     */
+    // Трудоемкость O(n * log n)
+    // Ресурсоемкость O(1)
+    public static <T> void heapSort(T[] elements, Comparator<? super T> comparator) {
+        heapSort(elements, 0, elements.length, comparator);
+    }
+
+    private static <T> void heapSort(T[] elements, int begin, int end, Comparator<? super T> comparator) {
+        int length = end - begin;
+        for (int start = length / 2 - 1; start >= 0; start--) {
+            siftDown(elements, begin, start, elements[begin + start], length, comparator);
+        }
+        for (int j = length - 1; j >= 1; j--) {
+            T current = elements[begin + j];
+            elements[begin + j] = elements[begin];
+            siftDown(elements, begin, 0, current, j, comparator);
+        }
+    }
+
+    private static <T> void siftDown(T[] elements, int offset, int start, T element, int length,
+                                     Comparator<? super T> comparator) {
+        int hole = start;
+        int child;
+        while ((child = 2 * hole + 1) < length) {
+            if (child + 1 < length && comparator.compare(elements[offset + child + 1], elements[offset + child]) > 0) {
+                child++;
+            }
+            elements[offset + hole] = elements[offset + child];
+            hole = child;
+        }
+        while (hole > start) {
+            int parent = (hole - 1) >> 1;
+            if (comparator.compare(elements[offset + parent], element) >= 0) break;
+            elements[offset + hole] = elements[offset + parent];
+            hole = parent;
+        }
+        elements[offset + hole] = element;
+    }
+
+    public static <T> void mergeSort(List<T> list, Comparator<? super T> comparator) {
+        sortList(list, array -> mergeSort(array, comparator));
+    }
+
+    public static <T> void quickSort(List<T> list, Comparator<? super T> comparator) {
+        sortList(list, array -> quickSort(array, comparator));
+    }
+
+    public static <T> void heapSort(List<T> list, Comparator<? super T> comparator) {
+        sortList(list, array -> heapSort(array, comparator));
+    }
+
+    // как и List.sort: копируем в массив, сортируем, записываем обратно
+    private static <T> void sortList(List<T> list, Consumer<T[]> sort) {
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) list.toArray();
+        sort.accept(array);
+        ListIterator<T> iterator = list.listIterator();
+        for (T element : array) {
+            iterator.next();
+            iterator.set(element);
+        }
+    }
+
+    /**
+     * Устойчивая сортировка по целочисленному ключу.
+     *
+     * Ключи вычисляются один раз; пары (ключ, индекс) упаковываются в long и сортируются
+     * поразрядной сортировкой, после чего элементы переставляются по индексам.
+     * Компаратор и compareTo при этом не вызываются совсем.
+     */
+    // Трудоемкость O(n)
+    // Ресурсоемкость O(n)
+    public static <T> void sortByIntKey(T[] elements, ToIntFunction<? super T> key) {
+        int length = elements.length;
+        if (length <= 1) return;
+        // ключ в старших 32 битах, индекс в младших: порядок long совпадает с порядком (ключ, индекс)
+        long[] packed = new long[length];
+        for (int i = 0; i < length; i++) {
+            packed[i] = ((long) key.applyAsInt(elements[i]) << 32) | i;
+        }
+        radixSort(packed);
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            indices[i] = (int) packed[i];
+        }
+        permute(elements, indices);
+    }
+
+    /**
+     * Устойчивая сортировка по ключу типа long, аналогична sortByIntKey
+     */
+    // Трудоемкость O(n)
+    // Ресурсоемкость O(n)
+    public static <T> void sortByLongKey(T[] elements, ToLongFunction<? super T> key) {
+        int length = elements.length;
+        if (length <= 1) return;
+        long[] keys = new long[length];
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = key.applyAsLong(elements[i]);
+            indices[i] = i;
+        }
+        radixSort(keys, indices);
+        permute(elements, indices);
+    }
+
+    // elements[i] = старый elements[indices[i]]
+    private static <T> void permute(T[] elements, int[] indices) {
+        T[] copy = elements.clone();
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = copy[indices[i]];
+        }
+    }
+
+    // поразрядная сортировка keys, элементы values переставляются вместе с ключами;
+    // сортировка устойчива: при равных ключах values сохраняют исходный порядок
+    static void radixSort(long[] keys, int[] values) {
+        int length = keys.length;
+        int passes = Long.SIZE / RADIX_BITS;
+        int[][] count = new int[passes][RADIX];
+        for (long key : keys) {
+            for (int pass = 0; pass < passes; pass++) {
+                count[pass][digit(key, pass)]++;
+            }
+        }
+        long[] sourceKeys = keys, targetKeys = new long[length];
+        int[] sourceValues = values, targetValues = new int[length];
+        for (int pass = 0; pass < passes; pass++) {
+            int[] passCount = count[pass];
+            if (passCount[digit(sourceKeys[0], pass)] == length) continue;
+            toOffsets(passCount);
+            for (int i = 0; i < length; i++) {
+                int position = passCount[digit(sourceKeys[i], pass)]++;
+                targetKeys[position] = sourceKeys[i];
+                targetValues[position] = sourceValues[i];
+            }
+            long[] tempKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = tempKeys;
+            int[] tempValues = sourceValues;
+            sourceValues = targetValues;
+            targetValues = tempValues;
+        }
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, 0, keys, 0, length);
+            System.arraycopy(sourceValues, 0, values, 0, length);
+        }
+    }
+
+    /**
+     * Адаптивная (естественная) сортировка слиянием в духе TimSort.
+     *
+     * Массив разбивается на уже упорядоченные серии (убывающие разворачиваются, короткие дополняются
+     * вставками до minRun), серии сливаются со стека с галопирующим поиском, так что длинные
+     * куски одной серии переносятся через System.arraycopy. Упорядоченный массив распознаётся
+     * за один проход, почти упорядоченный сортируется почти за линейное время.
+     */
+    // Трудоемкость O(n * log n), O(n) на упорядоченных данных
+    // Ресурсоемкость O(n)
+    public static void naturalMergeSort(int[] elements) {
+        if (elements.length <= 1) return;
+        new IntRunMerger(elements).sort();
+    }
+
+    /**
+     * Устойчивая адаптивная сортировка слиянием по comparator, аналогична naturalMergeSort(int[])
+     */
+    // Трудоемкость O(n * log n), O(n) на упорядоченных данных
+    // Ресурсоемкость O(n)
+    public static <T> void naturalMergeSort(T[] elements, Comparator<? super T> comparator) {
+        if (elements.length <= 1) return;
+        new RunMerger<>(elements, comparator).sort();
+    }
+
+    // после стольких побед подряд одной серии слияние переходит в режим галопа
+    private static final int MIN_GALLOP = 7;
+
+    // с запасом для инварианта длин серий на стеке при длине массива до 2^31
+    private static final int MAX_RUNS = 49;
+
+    // длина, до которой дополняются короткие серии: от 32 до 64, n / minRun близко к степени двойки
+    private static int minRunLength(int length) {
+        int rest = 0;
+        while (length >= 64) {
+            rest |= length & 1;
+            length >>= 1;
+        }
+        return length + rest;
+    }
+
+    private static class IntRunMerger {
+        private final int[] elements;
+        private int[] buffer = null;
+        private final int[] runBase = new int[MAX_RUNS];
+        private final int[] runLength = new int[MAX_RUNS];
+        private int runs = 0;
+
+        IntRunMerger(int[] elements) {
+            this.elements = elements;
+        }
+
+        void sort() {
+            int length = elements.length;
+            int minRun = minRunLength(length);
+            int begin = 0;
+            while (begin < length) {
+                int end = runEnd(begin);
+                if (end - begin < minRun) {
+                    int forced = Math.min(begin + minRun, length);
+                    insertionSort(elements, begin, forced);
+                    end = forced;
+                }
+                runBase[runs] = begin;
+                runLength[runs] = end - begin;
+                runs++;
+                mergeCollapse();
+                begin = end;
+            }
+            while (runs > 1) {
+                int n = runs - 2;
+                if (n > 0 && runLength[n - 1] < runLength[n + 1]) n--;
+                mergeAt(n);
+            }
+        }
+
+        // конец серии, начинающейся в begin; строго убывающая серия разворачивается
+        private int runEnd(int begin) {
+            int end = begin + 1;
+            if (end == elements.length) return end;
+            if (elements[end++] < elements[begin]) {
+                while (end < elements.length && elements[end] < elements[end - 1]) end++;
+                for (int i = begin, j = end - 1; i < j; i++, j--) {
+                    swap(elements, i, j);
+                }
+            } else {
+                while (end < elements.length && elements[end] >= elements[end - 1]) end++;
+            }
+            return end;
+        }
+
+        // поддерживает len[i - 2] > len[i - 1] + len[i] и len[i - 1] > len[i] для серий на стеке
+        private void mergeCollapse() {
+            while (runs > 1) {
+                int n = runs - 2;
+                if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                        || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+                    if (runLength[n - 1] < runLength[n + 1]) n--;
+                } else if (runLength[n] > runLength[n + 1]) {
+                    break;
+                }
+                mergeAt(n);
+            }
+        }
+
+        // сливает серии n и n + 1
+        private void mergeAt(int n) {
+            int begin = runBase[n];
+            int middle = begin + runLength[n];
+            int end = middle + runLength[n + 1];
+            runLength[n] += runLength[n + 1];
+            if (n == runs - 3) {
+                runBase[n + 1] = runBase[n + 2];
+                runLength[n + 1] = runLength[n + 2];
+            }
+            runs--;
+
+            // начало левой серии и конец правой уже стоят на своих местах
+            begin += gallopRight(elements[middle], elements, begin, middle - begin);
+            if (begin == middle) return;
+            end = middle + gallopLeft(elements[middle - 1], elements, middle, end - middle);
+
+            int leftLength = middle - begin;
+            if (buffer == null || buffer.length < leftLength) {
+                buffer = new int[Math.max(leftLength, Math.min(elements.length, 2 * leftLength))];
+            }
+            System.arraycopy(elements, begin, buffer, 0, leftLength);
+            int li = 0, ri = middle, to = begin;
+            merge:
+            while (true) {
+                int leftWins = 0, rightWins = 0;
+                // поэлементное слияние
+                do {
+                    if (elements[ri] < buffer[li]) {
+                        elements[to++] = elements[ri++];
+                        rightWins++;
+                        leftWins = 0;
+                        if (ri == end) break merge;
+                    } else {
+                        elements[to++] = buffer[li++];
+                        leftWins++;
+                        rightWins = 0;
+                        if (li == leftLength) break merge;
+                    }
+                } while ((leftWins | rightWins) < MIN_GALLOP);
+                // галоп: ищем, сколько элементов подряд можно взять из одной серии
+                do {
+                    leftWins = gallopRight(elements[ri], buffer, li, leftLength - li);
+                    System.arraycopy(buffer, li, elements, to, leftWins);
+                    to += leftWins;
+                    li += leftWins;
+                    if (li == leftLength) break merge;
+                    elements[to++] = elements[ri++];
+                    if (ri == end) break merge;
+                    rightWins = gallopLeft(buffer[li], elements, ri, end - ri);
+                    System.arraycopy(elements, ri, elements, to, rightWins);
+                    to += rightWins;
+                    ri += rightWins;
+                    if (ri == end) break merge;
+                    elements[to++] = buffer[li++];
+                    if (li == leftLength) break merge;
+                } while (leftWins >= MIN_GALLOP || rightWins >= MIN_GALLOP);
+            }
+            System.arraycopy(buffer, li, elements, to, leftLength - li);
+        }
+
+        // число элементов a[base, base + length) не больше key (экспоненциальный, затем двоичный поиск)
+        private static int gallopRight(int key, int[] a, int base, int length) {
+            int low = 0, high = 1;
+            while (high < length && a[base + high - 1] <= key) {
+                low = high;
+                high = Math.min(2 * high + 1, length);
+            }
+            if (high >= length) high = length;
+            // ответ в (low, high], a[base + low - 1] <= key при low > 0
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (a[base + middle] <= key) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+        // число элементов a[base, base + length) строго меньше key
+        private static int gallopLeft(int key, int[] a, int base, int length) {
+            int low = 0, high = 1;
+            while (high < length && a[base + high - 1] < key) {
+                low = high;
+                high = Math.min(2 * high + 1, length);
+            }
+            if (high >= length) high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (a[base + middle] < key) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+    }
+
+    private static class RunMerger<T> {
+        private final T[] elements;
+        private final Comparator<? super T> comparator;
+        private T[] buffer = null;
+        private final int[] runBase = new int[MAX_RUNS];
+        private final int[] runLength = new int[MAX_RUNS];
+        private int runs = 0;
+
+        RunMerger(T[] elements, Comparator<? super T> comparator) {
+            this.elements = elements;
+            this.comparator = comparator;
+        }
+
+        void sort() {
+            int length = elements.length;
+            int minRun = minRunLength(length);
+            int begin = 0;
+            while (begin < length) {
+                int end = runEnd(begin);
+                if (end - begin < minRun) {
+                    int forced = Math.min(begin + minRun, length);
+                    insertionSort(elements, begin, forced, comparator);
+                    end = forced;
+                }
+                runBase[runs] = begin;
+                runLength[runs] = end - begin;
+                runs++;
+                mergeCollapse();
+                begin = end;
+            }
+            while (runs > 1) {
+                int n = runs - 2;
+                if (n > 0 && runLength[n - 1] < runLength[n + 1]) n--;
+                mergeAt(n);
+            }
+        }
+
+        // строго убывающая серия разворачивается, равные элементы не переставляются
+        private int runEnd(int begin) {
+            int end = begin + 1;
+            if (end == elements.length) return end;
+            if (comparator.compare(elements[end++], elements[begin]) < 0) {
+                while (end < elements.length && comparator.compare(elements[end], elements[end - 1]) < 0) end++;
+                for (int i = begin, j = end - 1; i < j; i++, j--) {
+                    swap(elements, i, j);
+                }
+            } else {
+                while (end < elements.length && comparator.compare(elements[end], elements[end - 1]) >= 0) end++;
+            }
+            return end;
+        }
+
+        private void mergeCollapse() {
+            while (runs > 1) {
+                int n = runs - 2;
+                if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                        || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+                    if (runLength[n - 1] < runLength[n + 1]) n--;
+                } else if (runLength[n] > runLength[n + 1]) {
+                    break;
+                }
+                mergeAt(n);
+            }
+        }
+
+        private void mergeAt(int n) {
+            int begin = runBase[n];
+            int middle = begin + runLength[n];
+            int end = middle + runLength[n + 1];
+            runLength[n] += runLength[n + 1];
+            if (n == runs - 3) {
+                runBase[n + 1] = runBase[n + 2];
+                runLength[n + 1] = runLength[n + 2];
+            }
+            runs--;
+
+            begin += gallop(elements[middle], elements, begin, middle - begin, true);
+            if (begin == middle) return;
+            end = middle + gallop(elements[middle - 1], elements, middle, end - middle, false);
+
+            int leftLength = middle - begin;
+            if (buffer == null || buffer.length < leftLength) {
+                buffer = Arrays.copyOf(elements, Math.max(leftLength, Math.min(elements.length, 2 * leftLength)));
+            }
+            System.arraycopy(elements, begin, buffer, 0, leftLength);
+            int li = 0, ri = middle, to = begin;
+            merge:
+            while (true) {
+                int leftWins = 0, rightWins = 0;
+                do {
+                    if (comparator.compare(elements[ri], buffer[li]) < 0) {
+                        elements[to++] = elements[ri++];
+                        rightWins++;
+                        leftWins = 0;
+                        if (ri == end) break merge;
+                    } else {
+                        elements[to++] = buffer[li++];
+                        leftWins++;
+                        rightWins = 0;
+                        if (li == leftLength) break merge;
+                    }
+                } while ((leftWins | rightWins) < MIN_GALLOP);
+                do {
+                    leftWins = gallop(elements[ri], buffer, li, leftLength - li, true);
+                    System.arraycopy(buffer, li, elements, to, leftWins);
+                    to += leftWins;
+                    li += leftWins;
+                    if (li == leftLength) break merge;
+                    elements[to++] = elements[ri++];
+                    if (ri == end) break merge;
+                    rightWins = gallop(buffer[li], elements, ri, end - ri, false);
+                    System.arraycopy(elements, ri, elements, to, rightWins);
+                    to += rightWins;
+                    ri += rightWins;
+                    if (ri == end) break merge;
+                    elements[to++] = buffer[li++];
+                    if (li == leftLength) break merge;
+                } while (leftWins >= MIN_GALLOP || rightWins >= MIN_GALLOP);
+            }
+            System.arraycopy(buffer, li, elements, to, leftLength - li);
+        }
+
+        // число элементов a[base, base + length) не больше key (inclusive) или строго меньше key
+        private int gallop(T key, T[] a, int base, int length, boolean inclusive) {
+            int low = 0, high = 1;
+            while (high < length && precedes(a[base + high - 1], key, inclusive)) {
+                low = high;
+                high = Math.min(2 * high + 1, length);
+            }
+            if (high >= length) high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (precedes(a[base + middle], key, inclusive)) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+        private boolean precedes(T element, T key, boolean inclusive) {
+            int comparison = comparator.compare(element, key);
+            return inclusive ? comparison <= 0 : comparison < 0;
+        }
+    }
 }
\ No newline at end of file
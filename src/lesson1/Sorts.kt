@@ -1,6 +1,9 @@
 package lesson1
 
 import java.util.*
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+import java.util.concurrent.RecursiveAction
 
 private val random = Random(Calendar.getInstance().timeInMillis)
 
@@ -45,6 +48,143 @@ fun mergeSort(elements: IntArray) {
     mergeSort(elements, 0, elements.size)
 }
 
+// отрезки не длиннее этого сортируются вставками
+private const val INSERTION_SORT_THRESHOLD = 32
+
+// отрезки не длиннее этого сортируются и сливаются в одном потоке
+private const val PARALLEL_THRESHOLD = 1 shl 13
+
+private fun insertionSort(elements: IntArray, begin: Int, end: Int) {
+    for (i in begin + 1 until end) {
+        val current = elements[i]
+        var j = i - 1
+        while (j >= begin) {
+            if (elements[j] > current)
+                elements[j + 1] = elements[j]
+            else
+                break
+            j--
+        }
+        elements[j + 1] = current
+    }
+}
+
+/**
+ * Параллельная сортировка слиянием на ForkJoinPool из parallelism потоков.
+ *
+ * Вспомогательный буфер выделяется один раз, и уровни рекурсии поочерёдно
+ * сливают данные из массива в буфер и обратно.
+ */
+fun parallelMergeSort(elements: IntArray, parallelism: Int) {
+    require(parallelism >= 1) { "parallelism = $parallelism" }
+    if (elements.size <= 1) return
+    val buffer = elements.copyOf()
+    val pool = ForkJoinPool(parallelism)
+    try {
+        pool.invoke(MergeSortTask(buffer, elements, 0, elements.size))
+    } finally {
+        pool.shutdown()
+    }
+}
+
+// Сортирует отрезок [begin, end) массива source, результат кладёт в тот же отрезок target.
+// Перед вызовом оба массива содержат на этом отрезке одни и те же элементы.
+private class MergeSortTask(
+    private val source: IntArray,
+    private val target: IntArray,
+    private val begin: Int,
+    private val end: Int
+) : RecursiveAction() {
+    override fun compute() {
+        if (end - begin <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(target, begin, end)
+            return
+        }
+        val middle = (begin + end) ushr 1
+        if (end - begin <= PARALLEL_THRESHOLD) {
+            MergeSortTask(target, source, begin, middle).compute()
+            MergeSortTask(target, source, middle, end).compute()
+        } else {
+            ForkJoinTask.invokeAll(
+                MergeSortTask(target, source, begin, middle),
+                MergeSortTask(target, source, middle, end)
+            )
+        }
+        MergeTask(source, begin, middle, middle, end, target, begin).invoke()
+    }
+}
+
+// Сливает отсортированные отрезки [leftBegin, leftEnd) и [rightBegin, rightEnd) массива source
+// в target, начиная с позиции to. Большие отрезки делятся по медиане большего из них.
+private class MergeTask(
+    private val source: IntArray,
+    private val leftBegin: Int,
+    private val leftEnd: Int,
+    private val rightBegin: Int,
+    private val rightEnd: Int,
+    private val target: IntArray,
+    private val to: Int
+) : RecursiveAction() {
+    override fun compute() {
+        val leftLength = leftEnd - leftBegin
+        val rightLength = rightEnd - rightBegin
+        if (leftLength + rightLength <= PARALLEL_THRESHOLD) {
+            merge(source, leftBegin, leftEnd, rightBegin, rightEnd, target, to)
+            return
+        }
+        val leftMiddle: Int
+        val rightMiddle: Int
+        if (leftLength >= rightLength) {
+            leftMiddle = (leftBegin + leftEnd) ushr 1
+            rightMiddle = lowerBound(source, rightBegin, rightEnd, source[leftMiddle])
+        } else {
+            rightMiddle = (rightBegin + rightEnd) ushr 1
+            leftMiddle = upperBound(source, leftBegin, leftEnd, source[rightMiddle])
+        }
+        val split = to + (leftMiddle - leftBegin) + (rightMiddle - rightBegin)
+        ForkJoinTask.invokeAll(
+            MergeTask(source, leftBegin, leftMiddle, rightBegin, rightMiddle, target, to),
+            MergeTask(source, leftMiddle, leftEnd, rightMiddle, rightEnd, target, split)
+        )
+    }
+}
+
+private fun merge(
+    source: IntArray, leftBegin: Int, leftEnd: Int, rightBegin: Int, rightEnd: Int,
+    target: IntArray, to: Int
+) {
+    var li = leftBegin
+    var ri = rightBegin
+    var i = to
+    while (li < leftEnd && ri < rightEnd) {
+        target[i++] = if (source[li] <= source[ri]) source[li++] else source[ri++]
+    }
+    source.copyInto(target, i, li, leftEnd)
+    source.copyInto(target, i + leftEnd - li, ri, rightEnd)
+}
+
+// первая позиция в [begin, end), где элемент >= key
+private fun lowerBound(elements: IntArray, begin: Int, end: Int, key: Int): Int {
+    var low = begin
+    var high = end
+    while (low < high) {
+        val middle = (low + high) ushr 1
+        if (elements[middle] < key) low = middle + 1 else high = middle
+    }
+    return low
+}
+
+// первая позиция в [begin, end), где элемент > key
+private fun upperBound(elements: IntArray, begin: Int, end: Int, key: Int): Int {
+    var low = begin
+    var high = end
+    while (low < high) {
+        val middle = (low + high) ushr 1
+        if (elements[middle] <= key) low = middle + 1 else high = middle
+    }
+    return low
+}
+
 private fun heapify(elements: IntArray, start: Int, length: Int) {
     val left = 2 * start + 1
     val right = left + 1
@@ -2,6 +2,11 @@
 
 package lesson2
 
+import lesson1.ByteLineReader
+import java.nio.channels.FileChannel
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
 /**
  * Получение наибольшей прибыли (она же -- поиск максимального подмассива)
  * Простая
@@ -27,9 +32,50 @@ package lesson2
  * В случае обнаружения неверного формата файла бросить любое исключение.
  */
 fun optimizeBuyAndSell(inputName: String): Pair<Int, Int> {
-    TODO()
+    // один проход: текущий минимум и лучшая разность; цены разбираются прямо из отображённого в память файла,
+    // большие файлы отображаются кусками по границам строк
+    FileChannel.open(Path.of(inputName), StandardOpenOption.READ).use { channel ->
+        val segments = maxOf(1L, (channel.size() + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE).toInt()
+        val bounds = ByteLineReader.lineBounds(channel, segments)
+        var index = 0
+        var min = 0
+        var minIndex = 0
+        var profit = 0L
+        var buy = -1
+        var sell = -1
+        for (segment in 0 until segments) {
+            if (bounds[segment] == bounds[segment + 1]) continue
+            val bytes = channel.map(FileChannel.MapMode.READ_ONLY, bounds[segment], bounds[segment + 1] - bounds[segment])
+            val limit = bytes.limit()
+            var lineStart = 0
+            while (lineStart < limit) {
+                var lineEnd = lineStart
+                while (lineEnd < limit && bytes[lineEnd] != '\n'.code.toByte()) lineEnd++
+                val next = lineEnd + 1
+                if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r'.code.toByte()) lineEnd--
+                val price = ByteLineReader.parseInt(bytes, lineStart, lineEnd)
+                require(price > 0) { "Неверный формат данных" }
+                if (index > 0 && (sell < 0 || price.toLong() - min > profit)) {
+                    profit = price.toLong() - min
+                    buy = minIndex
+                    sell = index
+                }
+                if (index == 0 || price < min) {
+                    min = price
+                    minIndex = index
+                }
+                index = Math.addExact(index, 1)
+                lineStart = next
+            }
+        }
+        require(sell >= 0) { "Неверный формат данных" }
+        return buy + 1 to sell + 1
+    }
 }
 
+// файлы больше отображаются в память несколькими кусками
+private const val MAX_SEGMENT_SIZE = 1L shl 30
+
 /**
  * Задача Иосифа Флафия.
  * Простая
@@ -79,8 +125,45 @@ fun optimizeBuyAndSell(inputName: String): Pair<Int, Int> {
  * Общий комментарий: решение из Википедии для этой задачи принимается,
  * но приветствуется попытка решить её самостоятельно.
  */
-fun josephTask(menNumber: Int, choiceInterval: Int): Int {
-    TODO()
+fun josephTask(menNumber: Int, choiceInterval: Int): Int = josephTask(menNumber.toLong(), choiceInterval.toLong()).toInt()
+
+/**
+ * Задача Иосифа для больших menNumber: выбирается более быстрая из рекуррент O(n) и O(k * log n)
+ */
+fun josephTask(menNumber: Long, choiceInterval: Long): Long {
+    require(menNumber >= 1 && choiceInterval >= 1)
+    if (choiceInterval == 1L) return menNumber
+    // рекуррента с прыжками делает ~k * ln(n / k) шагов, простая -- n шагов
+    val log = Long.SIZE_BITS - java.lang.Long.numberOfLeadingZeros(menNumber)
+    return if (choiceInterval < menNumber / log) josephJumps(menNumber, choiceInterval) + 1
+    else josephLinear(menNumber, choiceInterval) + 1
+}
+
+// J(1) = 0, J(m) = (J(m - 1) + k) mod m -- номер оставшегося с нуля
+private fun josephLinear(menNumber: Long, choiceInterval: Long): Long {
+    var survivor = 0L
+    for (m in 2..menNumber) {
+        survivor = (survivor + choiceInterval % m) % m
+    }
+    return survivor
+}
+
+// та же рекуррента, но шаги без взятия по модулю (J + k < m + 1) делаются разом: J(m + s) = J(m) + s * k
+private fun josephJumps(menNumber: Long, choiceInterval: Long): Long {
+    var survivor = 0L
+    var m = 1L
+    while (m < menNumber) {
+        val skip = minOf((m - survivor - 1) / (choiceInterval - 1), menNumber - m)
+        if (skip > 0) {
+            survivor += skip * choiceInterval
+            m += skip
+            continue
+        }
+        m++
+        val step = if (choiceInterval < m) choiceInterval else choiceInterval % m
+        survivor = if (survivor >= m - step) survivor - (m - step) else survivor + step
+    }
+    return survivor
 }
 
 /**
@@ -0,0 +1,231 @@
+package lesson2;
+
+/**
+ * Наибольшая прибыль (см. {@link JavaAlgorithms#optimizeBuyAndSell}) для цен, поступающих по одной.
+ *
+ * После каждого push(price) известна лучшая сделка: момент покупки раньше момента продажи,
+ * разность цен наибольшая; из равных по прибыли -- с самой ранней продажей, а для неё самая ранняя покупка.
+ * Моменты нумеруются с единицы в порядке поступления цен.
+ *
+ * В режиме окна (конструктор с window) учитываются только последние window цен. Окно -- очередь
+ * на двух стеках: у "передней" части хранятся сводки (минимум, максимум, лучшая сделка) для каждого суффикса,
+ * у "задней" -- одна сводка, пополняемая при push. Когда передняя часть кончается, задняя
+ * пересчитывается в суффиксы за O(window), то есть O(1) амортизированно на цену. Сводки объединяются
+ * ассоциативно, так что лучшая сделка окна -- объединение суффикса передней части и задней части.
+ * Всё хранится в массивах примитивов, выделенных в конструкторе: push ничего не выделяет.
+ */
+@SuppressWarnings("WeakerAccess")
+public class BuyAndSellTracker {
+
+    // 0 -- без окна
+    private final int window;
+
+    // кол-во поступивших цен; момент поступления цены -- её номер с нуля
+    private long ticks = 0;
+
+    // цены окна, цена момента t -- в prices[t % window]
+    private final int[] prices;
+
+    // передняя часть окна: моменты [frontStart, backStart), для каждого -- сводка суффикса до backStart
+    private long frontStart = 0;
+    private final int[] suffixMin;
+    private final int[] suffixMax;
+    private final long[] suffixMinTick;
+    private final long[] suffixMaxTick;
+    private final long[] suffixProfit;
+    private final long[] suffixBuy;
+    private final long[] suffixSell;
+
+    // задняя часть окна: моменты [backStart, ticks)
+    private long backStart = 0;
+    private int backMin, backMax;
+    private long backMinTick, backMaxTick;
+    private long backProfit;
+    private long backBuy = -1, backSell = -1;
+
+    // лучшая сделка, sell < 0 -- пока её нет
+    private long profit;
+    private long buy = -1, sell = -1;
+
+    /**
+     * Лучшая сделка по всем поступившим ценам
+     */
+    public BuyAndSellTracker() {
+        window = 0;
+        prices = suffixMin = suffixMax = null;
+        suffixMinTick = suffixMaxTick = suffixProfit = suffixBuy = suffixSell = null;
+    }
+
+    /**
+     * Лучшая сделка по последним window ценам
+     */
+    public BuyAndSellTracker(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("window = " + window);
+        }
+        this.window = window;
+        prices = new int[window];
+        suffixMin = new int[window];
+        suffixMax = new int[window];
+        suffixMinTick = new long[window];
+        suffixMaxTick = new long[window];
+        suffixProfit = new long[window];
+        suffixBuy = new long[window];
+        suffixSell = new long[window];
+    }
+
+    // Трудоемкость O(1) амортизированно
+    // Ресурсоемкость O(1)
+    public void push(int price) {
+        if (window > 0) {
+            if (ticks - frontStart == window) {
+                if (frontStart == backStart) moveBackToFront();
+                frontStart++;
+            }
+            prices[(int) (ticks % window)] = price;
+        }
+        addToBack(price);
+        ticks++;
+        updateBest();
+    }
+
+    private void addToBack(int price) {
+        if (backStart == ticks) {
+            backMin = backMax = price;
+            backMinTick = backMaxTick = ticks;
+            backSell = -1;
+            return;
+        }
+        long spread = (long) price - backMin;
+        if (backSell < 0 || spread > backProfit) {
+            backProfit = spread;
+            backBuy = backMinTick;
+            backSell = ticks;
+        }
+        if (price < backMin) {
+            backMin = price;
+            backMinTick = ticks;
+        }
+        if (price > backMax) {
+            backMax = price;
+            backMaxTick = ticks;
+        }
+    }
+
+    // Трудоемкость O(window)
+    // задняя часть становится передней: сводки суффиксов считаются справа налево
+    private void moveBackToFront() {
+        int min = 0, max = 0;
+        long minTick = -1, maxTick = -1, bestProfit = 0, bestBuy = -1, bestSell = -1;
+        for (long tick = ticks - 1; tick >= backStart; tick--) {
+            int index = (int) (tick % window);
+            int price = prices[index];
+            if (minTick < 0) {
+                min = max = price;
+                minTick = maxTick = tick;
+            } else {
+                // цена tick раньше всего суффикса: сделка "купить в tick, продать на максимуме суффикса"
+                // выигрывает и при равной прибыли, если продажа не позже лучшей продажи суффикса
+                long cross = (long) max - price;
+                if (bestSell < 0 || cross > bestProfit || cross == bestProfit && maxTick <= bestSell) {
+                    bestProfit = cross;
+                    bestBuy = tick;
+                    bestSell = maxTick;
+                }
+                if (price <= min) {
+                    min = price;
+                    minTick = tick;
+                }
+                if (price >= max) {
+                    max = price;
+                    maxTick = tick;
+                }
+            }
+            suffixMin[index] = min;
+            suffixMax[index] = max;
+            suffixMinTick[index] = minTick;
+            suffixMaxTick[index] = maxTick;
+            suffixProfit[index] = bestProfit;
+            suffixBuy[index] = bestBuy;
+            suffixSell[index] = bestSell;
+        }
+        backStart = ticks;
+    }
+
+    // лучшая сделка окна: объединение суффикса передней части и задней части
+    private void updateBest() {
+        if (frontStart == backStart) {
+            profit = backProfit;
+            buy = backBuy;
+            sell = backSell;
+            return;
+        }
+        int front = (int) (frontStart % window);
+        profit = suffixProfit[front];
+        buy = suffixBuy[front];
+        sell = suffixSell[front];
+        if (backStart == ticks) return;
+        // лучшая продажа в задней части: сделка внутри неё или покупка на минимуме передней
+        long cross = (long) backMax - suffixMin[front];
+        long rightProfit, rightBuy, rightSell;
+        if (backSell < 0 || cross > backProfit || cross == backProfit && backMaxTick <= backSell) {
+            rightProfit = cross;
+            rightBuy = suffixMinTick[front];
+            rightSell = backMaxTick;
+        } else {
+            rightProfit = backProfit;
+            rightBuy = backBuy;
+            rightSell = backSell;
+        }
+        // продажа в передней части раньше, при равной прибыли остаётся она
+        if (sell < 0 || rightProfit > profit) {
+            profit = rightProfit;
+            buy = rightBuy;
+            sell = rightSell;
+        }
+    }
+
+    /**
+     * Кол-во поступивших цен
+     */
+    public long ticks() {
+        return ticks;
+    }
+
+    /**
+     * Есть ли сделка: в окне (или всего) хотя бы две цены
+     */
+    public boolean hasTrade() {
+        return sell >= 0;
+    }
+
+    /**
+     * Момент покупки лучшей сделки, с единицы
+     */
+    public long buy() {
+        checkTrade();
+        return buy + 1;
+    }
+
+    /**
+     * Момент продажи лучшей сделки, с единицы
+     */
+    public long sell() {
+        checkTrade();
+        return sell + 1;
+    }
+
+    /**
+     * Прибыль лучшей сделки (отрицательна, если цены только падают)
+     */
+    public long profit() {
+        checkTrade();
+        return profit;
+    }
+
+    private void checkTrade() {
+        if (sell < 0) {
+            throw new IllegalStateException("No trade yet");
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package lesson2;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Индекс набора документов для поиска общих подстрок (см. {@link JavaAlgorithms#longestCommonSubstring}).
+ *
+ * Строится один раз: обобщённый суффиксный автомат всех документов ({@link SuffixAutomaton}).
+ * Строки одного состояния автомата встречаются в одних и тех же документах, а документы состояния --
+ * это документы префиксов, лежащих в его поддереве по суффиксным ссылкам. Поддерево при обходе
+ * в глубину -- отрезок [tin, tout], поэтому для документа хранятся отсортированные tin его префиксов,
+ * и проверка "встречаются ли строки состояния в документе d" -- двоичный поиск.
+ *
+ * Запрос "самая длинная общая подстрока со строкой query и документом d" -- проход query по автомату,
+ * при котором переходы в состояния, не встречающиеся в d, не принимаются: O(|query| log |d|),
+ * без просмотра документов. Самая длинная подстрока, общая для всех документов, считается при построении.
+ */
+@SuppressWarnings("WeakerAccess")
+public class CorpusIndex {
+
+    private final String[] documents;
+
+    private final SuffixAutomaton automaton;
+
+    // отрезок состояния в обходе дерева суффиксных ссылок
+    private final int[] tin;
+    private final int[] tout;
+
+    // для каждого документа -- tin состояний его префиксов по возрастанию
+    private final int[][] documentTins;
+
+    // самая длинная подстрока всех документов: начало в первом документе и длина
+    private final int commonStart;
+    private final int commonLength;
+
+    // Трудоемкость O(L log L) и O(L sqrt(L)) в худшем случае на общую подстроку всех документов,
+    // L -- суммарная длина документов
+    // Ресурсоемкость O(L)
+    public CorpusIndex(List<String> documents) {
+        this.documents = documents.toArray(new String[0]);
+        int total = 0;
+        for (String document : this.documents) {
+            total += document.length();
+        }
+        automaton = new SuffixAutomaton(total);
+        // состояния префиксов всех документов подряд
+        int[] prefixStates = new int[total];
+        int position = 0;
+        for (String document : this.documents) {
+            automaton.startText();
+            for (int i = 0; i < document.length(); i++) {
+                prefixStates[position++] = automaton.extend(document.charAt(i));
+            }
+        }
+        int states = automaton.states();
+        tin = new int[states];
+        tout = new int[states];
+        numberLinkTree(states);
+        documentTins = new int[this.documents.length][];
+        position = 0;
+        for (int d = 0; d < this.documents.length; d++) {
+            int[] tins = new int[this.documents[d].length()];
+            for (int i = 0; i < tins.length; i++) {
+                tins[i] = tin[prefixStates[position++]];
+            }
+            Arrays.sort(tins);
+            documentTins[d] = tins;
+        }
+        int[] common = commonToAll(prefixStates, states);
+        commonStart = common[0];
+        commonLength = common[1];
+    }
+
+    // нумерация дерева суффиксных ссылок обходом в глубину без рекурсии
+    private void numberLinkTree(int states) {
+        int[] firstChild = new int[states];
+        int[] nextSibling = new int[states];
+        Arrays.fill(firstChild, -1);
+        for (int state = states - 1; state > 0; state--) {
+            int parent = automaton.link(state);
+            nextSibling[state] = firstChild[parent];
+            firstChild[parent] = state;
+        }
+        int[] stack = new int[states];
+        int[] child = new int[states];
+        int size = 0;
+        int time = 0;
+        stack[size++] = 0;
+        tin[0] = time++;
+        child[0] = firstChild[0];
+        while (size > 0) {
+            int state = stack[size - 1];
+            int next = child[state];
+            if (next == -1) {
+                tout[state] = time - 1;
+                size--;
+            } else {
+                child[state] = nextSibling[next];
+                tin[next] = time++;
+                child[next] = firstChild[next];
+                stack[size++] = next;
+            }
+        }
+    }
+
+    // {начало в первом документе, длина} самой длинной строки, которая есть во всех документах
+    private int[] commonToAll(int[] prefixStates, int states) {
+        if (documents.length == 0) return new int[]{0, 0};
+        // сколько документов у состояния; lastDocument -- последний учтённый, чтобы не учесть дважды
+        int[] count = new int[states];
+        int[] lastDocument = new int[states];
+        Arrays.fill(lastDocument, -1);
+        int position = 0;
+        for (int d = 0; d < documents.length; d++) {
+            for (int i = 0; i < documents[d].length(); i++) {
+                // состояния-предки, уже отмеченные документом d, отмечены вместе со всеми своими предками
+                for (int state = prefixStates[position++]; state > 0 && lastDocument[state] != d;
+                     state = automaton.link(state)) {
+                    lastDocument[state] = d;
+                    count[state]++;
+                }
+            }
+        }
+        int bestLength = 0;
+        int bestStart = 0;
+        for (int state = 1; state < states; state++) {
+            if (count[state] != documents.length) continue;
+            int length = automaton.length(state);
+            // первое вхождение строки, которая есть во всех документах, -- в первом документе
+            int start = automaton.firstEnd(state) - length + 1;
+            if (length > bestLength || length == bestLength && start < bestStart) {
+                bestLength = length;
+                bestStart = start;
+            }
+        }
+        return new int[]{bestStart, bestLength};
+    }
+
+    /**
+     * Количество документов
+     */
+    public int size() {
+        return documents.length;
+    }
+
+    // встречаются ли строки состояния в документе
+    private boolean occursIn(int state, int document) {
+        int[] tins = documentTins[document];
+        int index = Arrays.binarySearch(tins, tin[state]);
+        if (index < 0) index = -index - 1;
+        return index < tins.length && tins[index] <= tout[state];
+    }
+
+    /**
+     * Самая длинная подстрока query, которая есть в документе с номером document (с нуля);
+     * из равных по длине -- самая ранняя в query
+     */
+    // Трудоемкость O(|query| log |document|)
+    // Ресурсоемкость O(1)
+    public String longestCommonSubstring(String query, int document) {
+        if (document < 0 || document >= documents.length) {
+            throw new IndexOutOfBoundsException("document = " + document);
+        }
+        int state = 0;
+        int matched = 0;
+        int best = 0;
+        int bestEnd = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            while (true) {
+                int target = automaton.next(state, c);
+                // строки target -- строки state, продолженные c, так что встречаются в документе вместе
+                if (target != SuffixAutomaton.NONE && occursIn(target, document)) {
+                    state = target;
+                    matched++;
+                    break;
+                }
+                if (state == 0) {
+                    matched = 0;
+                    break;
+                }
+                state = automaton.link(state);
+                matched = automaton.length(state);
+            }
+            if (matched > best) {
+                best = matched;
+                bestEnd = i + 1;
+            }
+        }
+        return query.substring(bestEnd - best, bestEnd);
+    }
+
+    /**
+     * Самая длинная подстрока query, которая есть хотя бы в одном документе;
+     * из равных по длине -- самая ранняя в query
+     */
+    // Трудоемкость O(|query|)
+    // Ресурсоемкость O(1)
+    public String longestCommonSubstring(String query) {
+        int[] found = automaton.longestCommonSubstring(query);
+        return query.substring(found[0], found[0] + found[1]);
+    }
+
+    /**
+     * Самая длинная подстрока, которая есть во всех документах;
+     * из равных по длине -- самая ранняя в первом документе
+     */
+    // Трудоемкость O(длины ответа)
+    public String longestCommonToAll() {
+        if (commonLength == 0) return "";
+        return documents[0].substring(commonStart, commonStart + commonLength);
+    }
+}
@@ -2,6 +2,20 @@ package lesson2;
 
 import kotlin.NotImplementedError;
 import kotlin.Pair;
+import lesson1.ByteLineReader;
+import lesson1.SegmentTasks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 @SuppressWarnings("unused")
 public class JavaAlgorithms {
@@ -29,8 +43,174 @@ public class JavaAlgorithms {
      *
      * В случае обнаружения неверного формата файла бросить любое исключение.
      */
-    static public Pair<Integer, Integer> optimizeBuyAndSell(String inputName) {
-        throw new NotImplementedError();
+    // Трудоемкость O(n)
+    // Ресурсоемкость O(1)
+    static public Pair<Integer, Integer> optimizeBuyAndSell(String inputName) throws IOException {
+        // один проход: текущий минимум и лучшая разность; цены разбираются прямо из отображённого в память файла
+        // (большие файлы отображаются кусками по MAX_SEGMENT_SIZE, сводки кусков объединяются)
+        try (FileChannel channel = FileChannel.open(Path.of(inputName), StandardOpenOption.READ)) {
+            int segments = (int) Math.max(1, (channel.size() + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE);
+            long[] bounds = ByteLineReader.lineBounds(channel, segments);
+            PriceSummary total = new PriceSummary();
+            for (int segment = 0; segment < segments; segment++) {
+                total = total.append(summarizePrices(channel, bounds[segment], bounds[segment + 1]));
+            }
+            return total.toPair();
+        }
+    }
+
+    /**
+     * Параллельный вариант optimizeBuyAndSell на общем пуле {@link ForkJoinPool#commonPool()}.
+     */
+    // Трудоемкость O(n / p)
+    // Ресурсоемкость O(p)
+    static public Pair<Integer, Integer> optimizeBuyAndSell(String inputName, int parallelism) throws IOException {
+        return optimizeBuyAndSell(inputName, parallelism, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный вариант optimizeBuyAndSell.
+     *
+     * Файл делится на parallelism кусков по границам строк, для каждого куска на executor считается сводка:
+     * минимум, максимум и лучшая сделка внутри куска. Сводки объединяются по порядку:
+     * лучшая сделка объединения -- лучшая из сделок частей и сделки "минимум слева, максимум справа".
+     * Объединение ассоциативно, поэтому результат тот же, что у последовательного прохода.
+     * Пул executor не закрывается, так что его можно делить между вызовами (см. {@link SegmentTasks}).
+     */
+    // Трудоемкость O(n / p)
+    // Ресурсоемкость O(p)
+    static public Pair<Integer, Integer> optimizeBuyAndSell(String inputName, int parallelism, Executor executor)
+            throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism = " + parallelism);
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(inputName), StandardOpenOption.READ)) {
+            int segments = (int) Math.max(parallelism, (channel.size() + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE);
+            long[] bounds = ByteLineReader.lineBounds(channel, segments);
+            List<Callable<PriceSummary>> tasks = new ArrayList<>();
+            for (int segment = 0; segment < segments; segment++) {
+                long start = bounds[segment];
+                long end = bounds[segment + 1];
+                tasks.add(() -> summarizePrices(channel, start, end));
+            }
+            PriceSummary total = new PriceSummary();
+            for (PriceSummary summary : SegmentTasks.invokeAll(tasks, executor)) {
+                total = total.append(summary);
+            }
+            return total.toPair();
+        }
+    }
+
+    // файлы больше отображаются в память несколькими кусками
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    // сводка по ценам в байтах [start, end) файла, номера цен внутри куска -- с нуля
+    private static PriceSummary summarizePrices(FileChannel channel, long start, long end) throws IOException {
+        PriceSummary summary = new PriceSummary();
+        if (start == end) return summary;
+        ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = segment.limit();
+        int lineStart = 0;
+        for (int i = 0; i < limit; i++) {
+            if (segment.get(i) != '\n' && i + 1 < limit) continue;
+            int lineEnd = segment.get(i) == '\n' ? i : limit;
+            if (lineEnd > lineStart && segment.get(lineEnd - 1) == '\r') lineEnd--;
+            int price = ByteLineReader.parseInt(segment, lineStart, lineEnd);
+            if (price <= 0) {
+                throw new IllegalArgumentException("Неверный формат данных");
+            }
+            summary.add(price);
+            lineStart = i + 1;
+        }
+        return summary;
+    }
+
+    /**
+     * Сводка по отрезку цен, номера которых идут с нуля:
+     * минимум и максимум (при равенстве -- самые ранние) и лучшая сделка внутри отрезка.
+     * Лучшая сделка -- наибольшая разность price[sell] - price[buy], buy < sell; из равных по прибыли --
+     * с самой ранней продажей, а для неё -- самая ранняя покупка.
+     */
+    private static final class PriceSummary {
+        long count = 0;
+        int min, max;
+        long minIndex, maxIndex;
+        // sell < 0, пока в отрезке меньше двух цен
+        long profit;
+        long buy = -1, sell = -1;
+
+        // Трудоемкость O(1)
+        void add(int price) {
+            if (count == 0) {
+                min = max = price;
+            } else {
+                long spread = (long) price - min;
+                if (sell < 0 || spread > profit) {
+                    profit = spread;
+                    buy = minIndex;
+                    sell = count;
+                }
+                if (price < min) {
+                    min = price;
+                    minIndex = count;
+                }
+                if (price > max) {
+                    max = price;
+                    maxIndex = count;
+                }
+            }
+            count++;
+        }
+
+        // Трудоемкость O(1)
+        // сводка по этому отрезку и следующему за ним right (номера в right сдвигаются на count)
+        PriceSummary append(PriceSummary right) {
+            if (right.count == 0) return this;
+            if (count == 0) return right;
+            PriceSummary result = new PriceSummary();
+            long shift = count;
+            result.count = count + right.count;
+            if (min <= right.min) {
+                result.min = min;
+                result.minIndex = minIndex;
+            } else {
+                result.min = right.min;
+                result.minIndex = right.minIndex + shift;
+            }
+            if (max >= right.max) {
+                result.max = max;
+                result.maxIndex = maxIndex;
+            } else {
+                result.max = right.max;
+                result.maxIndex = right.maxIndex + shift;
+            }
+            // лучшая продажа справа: либо сделка внутри right, либо покупка на минимуме слева
+            long cross = (long) right.max - min;
+            if (right.sell < 0 || cross > right.profit || cross == right.profit && right.maxIndex <= right.sell) {
+                result.profit = cross;
+                result.buy = minIndex;
+                result.sell = right.maxIndex + shift;
+            } else {
+                result.profit = right.profit;
+                result.buy = right.buy + shift;
+                result.sell = right.sell + shift;
+            }
+            // продажа слева раньше любой продажи справа
+            if (sell >= 0 && profit >= result.profit) {
+                result.profit = profit;
+                result.buy = buy;
+                result.sell = sell;
+            }
+            return result;
+        }
+
+        // номера строк, нумерация с единицы
+        Pair<Integer, Integer> toPair() {
+            if (sell < 0) {
+                throw new IllegalArgumentException("Неверный формат данных");
+            }
+            return new Pair<>(Math.toIntExact(buy + 1), Math.toIntExact(sell + 1));
+        }
     }
 
     /**
@@ -82,8 +262,108 @@ public class JavaAlgorithms {
      * Общий комментарий: решение из Википедии для этой задачи принимается,
      * но приветствуется попытка решить её самостоятельно.
      */
+    // Трудоемкость O(min(n, k * log n))
+    // Ресурсоемкость O(1)
     static public int josephTask(int menNumber, int choiceInterval) {
-        throw new NotImplementedError();
+        return (int) josephTask((long) menNumber, choiceInterval);
+    }
+
+    /**
+     * Задача Иосифа для menNumber и choiceInterval до Long.MAX_VALUE.
+     * Выбирается более быстрая из двух рекуррент: O(n) или O(k * log n)
+     */
+    static public long josephTask(long menNumber, long choiceInterval) {
+        if (menNumber < 1 || choiceInterval < 1) {
+            throw new IllegalArgumentException("menNumber = " + menNumber + ", choiceInterval = " + choiceInterval);
+        }
+        if (choiceInterval == 1) return menNumber;
+        // рекуррента с прыжками делает ~k * ln(n / k) шагов, простая -- n шагов
+        int log = Long.SIZE - Long.numberOfLeadingZeros(menNumber);
+        if (choiceInterval < menNumber / log) {
+            return josephJumps(menNumber, choiceInterval) + 1;
+        }
+        return josephLinear(menNumber, choiceInterval) + 1;
+    }
+
+    // Трудоемкость O(n)
+    // Ресурсоемкость O(1)
+    // J(1) = 0, J(m) = (J(m - 1) + k) mod m -- номер оставшегося с нуля
+    private static long josephLinear(long menNumber, long choiceInterval) {
+        long survivor = 0;
+        for (long m = 2; m <= menNumber; m++) {
+            // survivor < m, так что сумма не переполняется
+            survivor = (survivor + choiceInterval % m) % m;
+        }
+        return survivor;
+    }
+
+    // Трудоемкость O(k * log n)
+    // Ресурсоемкость O(1)
+    // Та же рекуррента J(m) = (J(m - 1) + k) mod m, но шаги без взятия по модулю делаются разом:
+    // пока J + k < m + 1, к номеру просто прибавляется k, так что от J(m) можно сразу перейти
+    // к J(m + s) = J(m) + s * k при s = (m - J(m) - 1) / (k - 1). После каждого шага по модулю J < k,
+    // и следующий прыжок увеличивает m примерно в k / (k - 1) раз; всего шагов ~k * ln(n / k)
+    private static long josephJumps(long menNumber, long choiceInterval) {
+        long survivor = 0;
+        for (long m = 1; m < menNumber; ) {
+            long skip = Math.min((m - survivor - 1) / (choiceInterval - 1), menNumber - m);
+            if (skip > 0) {
+                // survivor + skip * k <= m - 1 + skip < menNumber, так что не переполняется
+                survivor += skip * choiceInterval;
+                m += skip;
+                continue;
+            }
+            m++;
+            long step = choiceInterval < m ? choiceInterval : choiceInterval % m;
+            // (survivor + step) mod m без переполнения при m около Long.MAX_VALUE
+            survivor = survivor >= m - step ? survivor - (m - step) : survivor + step;
+        }
+        return survivor;
+    }
+
+    /**
+     * Порядок выбывания в задаче Иосифа: номера людей (с единицы) в порядке выбывания,
+     * последний элемент -- оставшийся человек.
+     *
+     * Вместо моделирования круга списком оставшиеся люди отмечены в дереве Фенвика:
+     * следующий выбывающий -- ((pos + k - 1) mod оставшихся)-й по порядку из оставшихся,
+     * и он находится спуском по дереву за O(log n).
+     */
+    // Трудоемкость O(n * log n)
+    // Ресурсоемкость O(n)
+    static public int[] josephOrder(int menNumber, int choiceInterval) {
+        if (menNumber < 1 || choiceInterval < 1) {
+            throw new IllegalArgumentException("menNumber = " + menNumber + ", choiceInterval = " + choiceInterval);
+        }
+        // tree[i] -- кол-во оставшихся среди людей (i - (i & -i), i]; сначала все на месте
+        int[] tree = new int[menNumber + 1];
+        for (int i = 1; i <= menNumber; i++) {
+            tree[i] += 1;
+            int parent = i + (i & -i);
+            if (parent <= menNumber) tree[parent] += tree[i];
+        }
+        int highestBit = Integer.highestOneBit(menNumber);
+        int[] order = new int[menNumber];
+        int position = 0;                   // с нуля, среди оставшихся
+        for (int remaining = menNumber; remaining > 0; remaining--) {
+            position = (int) ((position + (long) choiceInterval - 1) % remaining);
+            // спуск: наибольший префикс, в котором оставшихся не больше position
+            int man = 0;
+            int rest = position;
+            for (int step = highestBit; step > 0; step >>= 1) {
+                int next = man + step;
+                if (next <= menNumber && tree[next] <= rest) {
+                    man = next;
+                    rest -= tree[next];
+                }
+            }
+            man++;                          // (position + 1)-й оставшийся
+            order[menNumber - remaining] = man;
+            for (int i = man; i <= menNumber; i += i & -i) {
+                tree[i]--;
+            }
+        }
+        return order;
     }
 
     /**
@@ -97,62 +377,144 @@ public class JavaAlgorithms {
      * Если имеется несколько самых длинных общих подстрок одной длины,
      * вернуть ту из них, которая встречается раньше в строке first.
      */
-    // Трудоемкость O(n * m)
-    // Ресурсоемкость O(1)
+    // Трудоемкость O(n + m) (O(n * m) для коротких строк)
+    // Ресурсоемкость O(m)
     static public String longestCommonSubstring(String first, String second) {
-        int start = 0;
-        int max = 0;
-        int counter;
-        // последовательно проходим по главной диагонали матрицы и по диагоналям, которые выше главной
-        // за главную, принимаю диагональ a[i][i]
+        if ((long) first.length() * second.length() <= DIAGONAL_SCAN_THRESHOLD) {
+            return longestCommonSubstringDiagonal(first, second);
+        }
+        // суффиксный автомат second, по которому проходит first: для каждого конца в first
+        // известна длина самой длинной общей подстроки, кончающейся в нём
+        int[] found = new SuffixAutomaton(second).longestCommonSubstring(first);
+        return first.substring(found[0], found[0] + found[1]);
+    }
+
+    // до такого произведения длин просмотр диагоналей быстрее построения автомата
+    private static final long DIAGONAL_SCAN_THRESHOLD = 1L << 14;
+
+    // Трудоемкость O(n * m)
+    // Ресурсоемкость O(n + m)
+    private static String longestCommonSubstringDiagonal(String first, String second) {
+        if (first.isEmpty() || second.isEmpty()) return "";
+        // последовательно проходим по всем диагоналям матрицы совпадений a[i][j] = first[i] == second[j]:
+        // на диагонали d = j - i ищем самую длинную серию совпадений
         //    с р  е д а
         //   ____________
         // е  \. . . . . |
         // д  . \. . . . |
         // а  . .\ . . . |
         //        -------
-        for (int diag = 0; diag < second.length(); diag++) {
-            counter = 0;
-            for (int i = 0; i < first.length(); i++) {
-                if (i + diag >= second.length()) {
-                    continue;
-                }
-                if (first.charAt(i) == second.charAt(i + diag)) {
-                    counter++;
-                    if (counter > max) {
-                        max = counter;
-                        start = i;
-                    }
-                } else {
-                    counter = 0;
-                }
+        char[] a = first.toCharArray();
+        char[] b = second.toCharArray();
+        return substring(first, scanDiagonals(a, b, -(a.length - 1), b.length));
+    }
+
+    /**
+     * Параллельный вариант longestCommonSubstring просмотром диагоналей.
+     *
+     * Диагонали матрицы совпадений независимы: их диапазон делится между потоками ForkJoinPool,
+     * каждый кусок даёт свою лучшую (длина, начало в first), и результаты сводятся с тем же правилом:
+     * самая длинная, из равных -- самая ранняя в first. Без вспомогательных структур,
+     * поэтому подходит для строк средней длины, для которых не стоит строить суффиксный автомат.
+     */
+    // Трудоемкость O(n * m / p)
+    // Ресурсоемкость O(n + m)
+    static public String longestCommonSubstring(String first, String second, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism = " + parallelism);
+        }
+        if (first.isEmpty() || second.isEmpty()) return "";
+        char[] a = first.toCharArray();
+        char[] b = second.toCharArray();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            DiagonalScanTask task = new DiagonalScanTask(a, b, -(a.length - 1), b.length);
+            pool.invoke(task);
+            return substring(first, task.best);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Наибольшая общая подстрока нескольких строк: самая длинная строка, которая есть в каждой из strings.
+     * Если имеется несколько самых длинных, вернуть ту из них, которая встречается раньше в первой строке.
+     * Если строк нет, вернуть пустую строку.
+     *
+     * Для многократных запросов к одному набору строк см. {@link CorpusIndex}
+     */
+    // Трудоемкость O(L log L), L -- суммарная длина строк
+    // Ресурсоемкость O(L)
+    static public String longestCommonSubstring(List<String> strings) {
+        return new CorpusIndex(strings).longestCommonToAll();
+    }
+
+    // столько клеток матрицы просматривается одной задачей без деления
+    private static final long DIAGONAL_TASK_CELLS = 1L << 16;
+
+    private static class DiagonalScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final char[] first;
+        private final char[] second;
+        private final int from;
+        private final int to;
+        long best;
+
+        DiagonalScanTask(char[] first, char[] second, int from, int to) {
+            this.first = first;
+            this.second = second;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || (long) (to - from) * Math.min(first.length, second.length) <= DIAGONAL_TASK_CELLS) {
+                best = scanDiagonals(first, second, from, to);
+                return;
             }
+            int middle = from + (to - from) / 2;
+            DiagonalScanTask left = new DiagonalScanTask(first, second, from, middle);
+            DiagonalScanTask right = new DiagonalScanTask(first, second, middle, to);
+            invokeAll(left, right);
+            best = Math.max(left.best, right.best);
         }
-        // последовательно проходим по главной диагоналям матрицы, которые ниже главной
-        //    с р е д а
-        // е |\.. . . .
-        // д |.\. . . .
-        // а |..\ . . .
-        //   ----
-        for (int diag = 1; diag < first.length(); diag++) {
-            counter = 0;
-            for (int j = 0; j < second.length(); j++) {
-                if (j + diag >= first.length()) {
-                    continue;
-                }
-                if (second.charAt(j) == first.charAt(j + diag)) {
+    }
+
+    // Трудоемкость O(клеток на диагоналях)
+    // Самая длинная серия совпадений на диагоналях d = j - i из [from, to), из равных -- с меньшим началом в first.
+    // Результат упакован в long: длина в старших 32 битах, ~начало в младших, так что больший long -- лучше,
+    // 0 -- совпадений нет
+    private static long scanDiagonals(char[] first, char[] second, int from, int to) {
+        int max = 0;
+        int start = 0;
+        for (int diag = from; diag < to; diag++) {
+            // границы диагонали: 0 <= i < first.length, 0 <= i + diag < second.length
+            int end = Math.min(first.length, second.length - diag);
+            int counter = 0;
+            for (int i = Math.max(0, -diag); i < end; i++) {
+                if (first[i] == second[i + diag]) {
                     counter++;
-                    if (counter > max) {
+                    if (counter > max || counter == max && i - counter + 1 < start) {
                         max = counter;
-                        start = j + diag;
+                        start = i - counter + 1;
                     }
                 } else {
                     counter = 0;
                 }
             }
         }
-        return first.substring(start - max + 1, start + 1);
+        return max == 0 ? 0 : (long) max << 32 | (~start & 0xFFFFFFFFL);
     }
+
+    private static String substring(String first, long found) {
+        if (found == 0) return "";
+        int length = (int) (found >>> 32);
+        int start = ~(int) found;
+        return first.substring(start, start + length);
+    }
+
     /**
      * Число простых чисел в интервале
      * Простая
@@ -163,24 +525,36 @@ public class JavaAlgorithms {
      * Справка: простым считается число, которое делится нацело только на 1 и на себя.
      * Единица простым числом не считается.
      */
-    // Трудоемкость O(n log(log n))
-    // Ресурсоемкость O(n)
+    // Трудоемкость O(n^(2/3))
+    // Ресурсоемкость O(n^(2/3))
     static public int calcPrimesNumber(int limit) {
-        if (limit <= 1) {
-            return 0;
-        }
-        int counter = limit - 1;
-        boolean[] array = new boolean[limit + 1];
-        for (int i = 2; i * i <= limit; i++) {
-            if (!array[i]) {
-                for (int j = i * i; j <= limit; j += i) {
-                    if (!array[j]) {
-                        array[j] = true;
-                        counter--;
-                    }
-                }
-            }
+        return (int) calcPrimesNumber((long) limit);
+    }
+
+    // до этого limit решето укладывается в один сегмент и быстрее формулы Лемера
+    private static final long SIEVE_LIMIT = 2L * PrimeSieve.SEGMENT_BITS;
+
+    /**
+     * Число простых чисел от 1 до limit для limit, не помещающихся в int (до 2^62).
+     * Небольшие limit просеиваются (см. {@link PrimeSieve}), для больших простые считаются
+     * формулой Лемера (см. {@link LehmerPrimeCounter}) без просеивания всего интервала:
+     * 10^13 -- за секунды
+     */
+    // Трудоемкость O(n^(2/3))
+    // Ресурсоемкость O(n^(2/3))
+    static public long calcPrimesNumber(long limit) {
+        if (limit <= SIEVE_LIMIT) {
+            return PrimeSieve.count(limit, 1);
         }
-        return counter;
+        return LehmerPrimeCounter.count(limit);
+    }
+
+    /**
+     * Число простых чисел от 1 до limit сегментированным решетом в не более чем parallelism потоках
+     */
+    // Трудоемкость O(n log(log n) / p)
+    // Ресурсоемкость O(sqrt(n) + p * 32 КБ)
+    static public long calcPrimesNumber(long limit, int parallelism) {
+        return PrimeSieve.count(limit, parallelism);
     }
 }
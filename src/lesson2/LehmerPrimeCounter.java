@@ -0,0 +1,136 @@
+package lesson2;
+
+/**
+ * Количество простых π(x) формулой Лемера, без просеивания всего интервала [1, x].
+ *
+ * π(x) = φ(x, a) + (b + a - 2)(b - a + 1) / 2 - Σ π(x / p_i) - Σ Σ (π(x / (p_i p_j)) - (j - 1)),
+ * где a = π(x^(1/4)), b = π(x^(1/2)), c = π(x^(1/3)), первая сумма по a < i <= b,
+ * двойная -- по a < i <= c, i <= j <= π(sqrt(x / p_i)); φ(x, a) -- количество чисел от 1 до x,
+ * не делящихся ни на одно из первых a простых.
+ *
+ * π для чисел до x^(2/3) берётся из {@link PrimeTable} за O(1).
+ * Большие аргументы π считаются той же формулой рекурсивно. φ(x, a) для первых PHI_BASE простых
+ * берётся из кэша по периоду -- их произведению, а при p_(a+1)^2 > x сводится к π(x) по таблице.
+ * Всего O(x^(2/3)) времени на практике и O(x^(2/3) * 3 / 32) байт на таблицу.
+ */
+class LehmerPrimeCounter {
+
+    // φ(x, a) при a <= PHI_BASE -- по кэшу
+    private static final int PHI_BASE = 7;
+
+    private static final int[] BASE_PRIMES = {2, 3, 5, 7, 11, 13, 17};
+
+    // PHI_PERIOD[a] -- произведение первых a простых, PHI_TOTIENT[a] -- φ(PHI_PERIOD[a], a),
+    // PHI_CACHE[a][r] -- φ(r, a) для r < PHI_PERIOD[a]. Всего около 540 тыс. int
+    private static final int[] PHI_PERIOD = new int[PHI_BASE + 1];
+    private static final int[] PHI_TOTIENT = new int[PHI_BASE + 1];
+    private static final int[][] PHI_CACHE = new int[PHI_BASE + 1][];
+
+    static {
+        PHI_PERIOD[0] = 1;
+        for (int a = 1; a <= PHI_BASE; a++) {
+            PHI_PERIOD[a] = PHI_PERIOD[a - 1] * BASE_PRIMES[a - 1];
+        }
+        for (int a = 0; a <= PHI_BASE; a++) {
+            int[] cache = new int[PHI_PERIOD[a]];
+            int count = 0;
+            for (int r = 0; r < cache.length; r++) {
+                if (r > 0 && coprime(r, a)) count++;
+                cache[r] = count;
+            }
+            PHI_CACHE[a] = cache;
+            PHI_TOTIENT[a] = count + (a == 0 ? 1 : 0);
+        }
+    }
+
+    private static boolean coprime(int n, int a) {
+        for (int i = 0; i < a; i++) {
+            if (n % BASE_PRIMES[i] == 0) return false;
+        }
+        return true;
+    }
+
+    // таблица π больше не растёт: 2^30 чисел -- 64 МБ решета и 32 МБ индекса
+    private static final long MAX_TABLE_LIMIT = 1L << 30;
+
+    // таблица π до tableLimit
+    private final PrimeTable table;
+    private final long tableLimit;
+
+    // простые до корня из x, primes[0] = 2
+    private final int[] primes;
+
+    private LehmerPrimeCounter(long x) {
+        long root = PrimeSieve.isqrt(x);
+        table = new PrimeTable(Math.max(root, Math.min(Math.max(icbrt(x) * icbrt(x), 1 << 16), MAX_TABLE_LIMIT)));
+        tableLimit = table.limit();
+        // при x < 4 простых до корня нет, и массив пуст
+        primes = new int[(int) table.pi(root)];
+        int prime = 1;
+        for (int i = 0; i < primes.length; i++) {
+            prime = (int) table.nextPrime(prime);
+            primes[i] = prime;
+        }
+    }
+
+    /**
+     * Количество простых от 1 до x
+     */
+    // Трудоемкость O(x^(2/3))
+    // Ресурсоемкость O(x^(2/3))
+    static long count(long x) {
+        if (x > PrimeSieve.MAX_LIMIT) {
+            throw new IllegalArgumentException("limit = " + x);
+        }
+        if (x <= 1) return 0;
+        return new LehmerPrimeCounter(x).pi(x);
+    }
+
+    // Целая часть кубического корня
+    static long icbrt(long n) {
+        long root = (long) Math.cbrt((double) n);
+        while (root * root * root > n) root--;
+        while ((root + 1) * (root + 1) * (root + 1) <= n) root++;
+        return root;
+    }
+
+    private long pi(long x) {
+        if (x <= tableLimit) return table.pi(x);
+        int a = (int) pi(PrimeSieve.isqrt(PrimeSieve.isqrt(x)));
+        int b = (int) pi(PrimeSieve.isqrt(x));
+        int c = (int) pi(icbrt(x));
+        long sum = phi(x, a) + (long) (b + a - 2) * (b - a + 1) / 2;
+        // простые здесь нумеруются с единицы: p_i = primes[i - 1]
+        for (int i = a + 1; i <= b; i++) {
+            long w = x / primes[i - 1];
+            sum -= pi(w);
+            if (i <= c) {
+                int limit = (int) pi(PrimeSieve.isqrt(w));
+                for (int j = i; j <= limit; j++) {
+                    sum -= pi(w / primes[j - 1]) - (j - 1);
+                }
+            }
+        }
+        return sum;
+    }
+
+    // количество чисел от 1 до x, не делящихся ни на одно из первых a простых
+    private long phi(long x, int a) {
+        if (a <= PHI_BASE) {
+            int period = PHI_PERIOD[a];
+            return x / period * PHI_TOTIENT[a] + PHI_CACHE[a][(int) (x % period)];
+        }
+        // p_(a+1)^2 > x: остаются единица и простые из (p_a, x]
+        if (x <= tableLimit && (long) primes[a] * primes[a] > x) {
+            return 1 + Math.max(0, table.pi(x) - a);
+        }
+        // φ(x, a) = φ(x, a - 1) - φ(x / p_a, a - 1), развёрнуто до PHI_BASE
+        long result = phi(x, PHI_BASE);
+        for (int i = PHI_BASE + 1; i <= a; i++) {
+            long quotient = x / primes[i - 1];
+            if (quotient == 0) break;
+            result -= phi(quotient, i - 1);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,232 @@
+package lesson2;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Сегментированное решето Эратосфена по нечётным числам с упаковкой в биты.
+ *
+ * Бит k соответствует нечётному числу 2k + 1 и установлен, если число простое. Решето проходится
+ * сегментами по SEGMENT_BITS бит (32 КБ -- размер кэша L1 данных): сегмент вычёркивается простыми
+ * до корня из конца сегмента, после чего простые в нём считаются через Long.bitCount.
+ * Сегменты независимы, поэтому делятся между потоками ForkJoinPool, у каждого потока свой буфер сегмента.
+ * Кроме буферов, память нужна только на простые до корня из limit.
+ */
+class PrimeSieve {
+
+    // нечётных чисел в сегменте
+    static final int SEGMENT_BITS = 1 << 18;
+
+    static final int SEGMENT_WORDS = SEGMENT_BITS / Long.SIZE;
+
+    // при большем limit корень из него не помещается в int
+    static final long MAX_LIMIT = (1L << 62) - 1;
+
+    // столько сегментов решается одной задачей без деления
+    private static final int SEGMENTS_PER_TASK = 4;
+
+    private PrimeSieve() {
+    }
+
+    // Трудоемкость O(log n)
+    // Целая часть корня
+    static long isqrt(long n) {
+        long root = (long) Math.sqrt((double) n);
+        while (root * root > n) root--;
+        while ((root + 1) * (root + 1) <= n) root++;
+        return root;
+    }
+
+    /**
+     * Нечётные простые, не большие limit, по возрастанию
+     */
+    // Трудоемкость O(n log(log n))
+    // Ресурсоемкость O(n)
+    static int[] oddPrimes(int limit) {
+        if (limit < 3) return new int[0];
+        // composite[k] -- составное ли 2k + 1
+        boolean[] composite = new boolean[(limit - 1) / 2 + 1];
+        int count = 0;
+        for (int k = 1; k < composite.length; k++) {
+            if (composite[k]) continue;
+            count++;
+            long p = 2L * k + 1;
+            for (long j = p * p / 2; j < composite.length; j += p) {
+                composite[(int) j] = true;
+            }
+        }
+        int[] primes = new int[count];
+        count = 0;
+        for (int k = 1; k < composite.length; k++) {
+            if (!composite[k]) primes[count++] = 2 * k + 1;
+        }
+        return primes;
+    }
+
+    /**
+     * Нечётные простые, нужные для решета до limit: не большие корня из limit
+     */
+    static int[] sievingPrimes(long limit) {
+        return oddPrimes((int) isqrt(limit));
+    }
+
+    // простые меньше 64: вычёркиваются не по одному биту, а масками по целому слову
+    private static final int[] WORD_PRIMES = {3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61};
+
+    // WORD_MASKS[i][r] -- маска слова, первый бит которого имеет номер k, k % p == r, для p = WORD_PRIMES[i]:
+    // сброшены биты кратных p. Номер первого бита следующего слова больше на 64, так что маски идут по кругу
+    private static final long[][] WORD_MASKS = new long[WORD_PRIMES.length][];
+
+    static {
+        for (int i = 0; i < WORD_PRIMES.length; i++) {
+            int p = WORD_PRIMES[i];
+            WORD_MASKS[i] = new long[p];
+            for (int r = 0; r < p; r++) {
+                long mask = -1L;
+                for (int j = 0; j < Long.SIZE; j++) {
+                    // 2k + 1 делится на p <=> k % p == (p - 1) / 2
+                    if ((r + j) % p == (p - 1) / 2) mask &= ~(1L << j);
+                }
+                WORD_MASKS[i][r] = mask;
+            }
+        }
+    }
+
+    /**
+     * Решето для нечётных чисел 2k + 1, from <= k < from + count (from кратно 64, count <= bits.length * 64):
+     * в bits устанавливаются биты простых, лишние биты последнего слова сбрасываются.
+     * primes -- нечётные простые по возрастанию, до корня из наибольшего числа сегмента
+     */
+    // Трудоемкость O(count log(log n))
+    // Ресурсоемкость O(1)
+    static void sieveSegment(long[] bits, long from, int count, int[] primes) {
+        int words = (count + Long.SIZE - 1) / Long.SIZE;
+        for (int i = 0; i < words; i++) {
+            bits[i] = -1L;
+        }
+        long low = 2 * from + 1;
+        long high = 2 * (from + count) - 1;
+        for (int i = 0; i < WORD_PRIMES.length && (long) WORD_PRIMES[i] * WORD_PRIMES[i] <= high; i++) {
+            int p = WORD_PRIMES[i];
+            long[] masks = WORD_MASKS[i];
+            int step = Long.SIZE % p;
+            int r = (int) (from % p);
+            for (int w = 0; w < words; w++) {
+                bits[w] &= masks[r];
+                r += step;
+                if (r >= p) r -= p;
+            }
+        }
+        if (count % Long.SIZE != 0) {
+            bits[words - 1] &= -1L >>> (Long.SIZE - count % Long.SIZE);
+        }
+        for (int p : primes) {
+            if (p < Long.SIZE) continue;
+            long square = (long) p * p;
+            if (square > high) break;
+            long start = square;
+            if (start < low) {
+                start = (low + p - 1) / p * p;
+                // чётные кратные в решете не представлены
+                if ((start & 1) == 0) start += p;
+            }
+            // start - low < 2 * max(p, count), так что номер бита помещается в int
+            int k = (int) ((start - low) / 2);
+            if (p >= count) {
+                // в сегменте не больше одного кратного, а k + p при p около 2^31 переполнило бы int
+                if (k < count) bits[k >>> 6] &= ~(1L << k);
+            } else {
+                for (; k < count; k += p) {
+                    bits[k >>> 6] &= ~(1L << k);
+                }
+            }
+        }
+        if (from == 0) {
+            // маски вычеркнули и сами простые меньше 64
+            for (int p : WORD_PRIMES) {
+                if (p / 2 < count) bits[0] |= 1L << (p / 2);
+            }
+            // единица -- не простое
+            bits[0] &= ~1L;
+        }
+    }
+
+    // Трудоемкость O(words)
+    static long bitCount(long[] bits, int words) {
+        long count = 0;
+        for (int i = 0; i < words; i++) {
+            count += Long.bitCount(bits[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Количество простых от 1 до limit
+     */
+    // Трудоемкость O(n log(log n) / p)
+    // Ресурсоемкость O(sqrt(n) + p * SEGMENT_BITS)
+    static long count(long limit, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism = " + parallelism);
+        }
+        if (limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit = " + limit);
+        }
+        if (limit <= 1) return 0;
+        // нечётных чисел от 1 до limit
+        long odds = (limit + 1) / 2;
+        int[] primes = sievingPrimes(limit);
+        long segments = (odds + SEGMENT_BITS - 1) / SEGMENT_BITS;
+        // 2 -- единственное чётное простое
+        if (parallelism == 1 || segments <= SEGMENTS_PER_TASK) {
+            return 1 + countSegments(odds, primes, 0, segments);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return 1 + pool.invoke(new CountTask(odds, primes, 0, segments));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // простые в сегментах [fromSegment, toSegment) решета для нечётных чисел с номерами меньше odds
+    private static long countSegments(long odds, int[] primes, long fromSegment, long toSegment) {
+        long[] bits = new long[SEGMENT_WORDS];
+        long count = 0;
+        for (long segment = fromSegment; segment < toSegment; segment++) {
+            long from = segment * SEGMENT_BITS;
+            int size = (int) Math.min(SEGMENT_BITS, odds - from);
+            sieveSegment(bits, from, size, primes);
+            count += bitCount(bits, (size + Long.SIZE - 1) / Long.SIZE);
+        }
+        return count;
+    }
+
+    private static class CountTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final long odds;
+        private final int[] primes;
+        private final long fromSegment;
+        private final long toSegment;
+
+        CountTask(long odds, int[] primes, long fromSegment, long toSegment) {
+            this.odds = odds;
+            this.primes = primes;
+            this.fromSegment = fromSegment;
+            this.toSegment = toSegment;
+        }
+
+        @Override
+        protected Long compute() {
+            if (toSegment - fromSegment <= SEGMENTS_PER_TASK) {
+                return countSegments(odds, primes, fromSegment, toSegment);
+            }
+            long middle = fromSegment + (toSegment - fromSegment) / 2;
+            CountTask left = new CountTask(odds, primes, fromSegment, middle);
+            CountTask right = new CountTask(odds, primes, middle, toSegment);
+            right.fork();
+            return left.compute() + right.join();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package lesson2;
+
+import java.util.Arrays;
+
+/**
+ * Таблица простых чисел до растущей верхней границы: π(n), проверка на простоту,
+ * следующее простое и количество простых в интервале.
+ *
+ * Хранится решето по нечётным числам (бит k -- число 2k + 1, см. {@link PrimeSieve}) и индекс:
+ * количество простых перед каждым словом решета. π(n) -- значение индекса и один Long.bitCount
+ * по части слова, то есть O(1); всего n / 16 + n / 32 байт. Запрос за границей таблицы дорешивает её
+ * новыми сегментами (граница при этом хотя бы удваивается), ранее просеянное не пересчитывается.
+ *
+ * Решето и индекс лежат в неизменяемом снимке, на который ссылается volatile-поле: читатели
+ * работают без блокировок, а расширение (synchronized) строит новый снимок и публикует его целиком.
+ * Читатель, получивший старый снимок, дорабатывает по нему -- старый снимок остаётся верным.
+ */
+@SuppressWarnings("WeakerAccess")
+public class PrimeTable {
+
+    // больше 2^32 количество простых перед словом не помещается в int, а таблица -- в разумную память
+    public static final long MAX_LIMIT = 1L << 32;
+
+    private static final class Snapshot {
+        // нечётных чисел в таблице, кратно PrimeSieve.SEGMENT_BITS
+        final long odds;
+        final long[] bits;
+        // rank[w] -- простых (вместе с 2) среди чисел до слова w
+        final int[] rank;
+        // всего простых в таблице
+        final int primes;
+
+        Snapshot(long odds, long[] bits, int[] rank, int primes) {
+            this.odds = odds;
+            this.bits = bits;
+            this.rank = rank;
+            this.primes = primes;
+        }
+
+        long limit() {
+            return 2 * odds;
+        }
+    }
+
+    private volatile Snapshot table = new Snapshot(0, new long[0], new int[0], 1);
+
+    public PrimeTable() {
+        this(PrimeSieve.SEGMENT_BITS);
+    }
+
+    /**
+     * Таблица, сразу просеянная до limit
+     */
+    public PrimeTable(long limit) {
+        grow(limit);
+    }
+
+    /**
+     * Верхняя граница таблицы: запросы до неё не требуют просеивания
+     */
+    public long limit() {
+        return table.limit();
+    }
+
+    private static void checkLimit(long n) {
+        if (n > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit = " + n);
+        }
+    }
+
+    // таблица, в которой есть n
+    private Snapshot tableFor(long n) {
+        Snapshot current = table;
+        return n <= current.limit() ? current : grow(n);
+    }
+
+    // Трудоемкость O(новых чисел * log(log n))
+    // Ресурсоемкость O(n)
+    private synchronized Snapshot grow(long n) {
+        checkLimit(n);
+        Snapshot old = table;
+        if (n <= old.limit()) return old;
+        long odds = Math.max(2 * old.odds, (n + 1) / 2);
+        odds = (odds + PrimeSieve.SEGMENT_BITS - 1) / PrimeSieve.SEGMENT_BITS * PrimeSieve.SEGMENT_BITS;
+        odds = Math.min(odds, MAX_LIMIT / 2);
+        long[] bits = Arrays.copyOf(old.bits, (int) (odds / Long.SIZE));
+        int[] sieving = PrimeSieve.sievingPrimes(2 * odds - 1);
+        long[] segment = new long[PrimeSieve.SEGMENT_WORDS];
+        for (long from = old.odds; from < odds; from += PrimeSieve.SEGMENT_BITS) {
+            PrimeSieve.sieveSegment(segment, from, PrimeSieve.SEGMENT_BITS, sieving);
+            System.arraycopy(segment, 0, bits, (int) (from / Long.SIZE), PrimeSieve.SEGMENT_WORDS);
+        }
+        int[] rank = Arrays.copyOf(old.rank, bits.length);
+        int primes = old.primes;
+        for (int w = old.rank.length; w < rank.length; w++) {
+            rank[w] = primes;
+            primes += Long.bitCount(bits[w]);
+        }
+        Snapshot grown = new Snapshot(odds, bits, rank, primes);
+        table = grown;
+        return grown;
+    }
+
+    // простых (вместе с 2) среди нечётных чисел с номерами не больше k
+    private static long rank(Snapshot table, long k) {
+        int w = (int) (k >>> 6);
+        return table.rank[w] + Long.bitCount(table.bits[w] & (-1L >>> (63 - (k & 63))));
+    }
+
+    /**
+     * Количество простых от 1 до n
+     */
+    // Трудоемкость O(1), если n не больше limit()
+    // Ресурсоемкость O(1)
+    public long pi(long n) {
+        if (n < 2) return 0;
+        return rank(tableFor(n), (n - 1) / 2);
+    }
+
+    /**
+     * Количество простых в интервале [from, to]
+     */
+    // Трудоемкость O(1), если to не больше limit()
+    // Ресурсоемкость O(1)
+    public long count(long from, long to) {
+        if (from > to) return 0;
+        return pi(to) - pi(from - 1);
+    }
+
+    /**
+     * Является ли n простым
+     */
+    // Трудоемкость O(1), если n не больше limit()
+    // Ресурсоемкость O(1)
+    public boolean isPrime(long n) {
+        if (n < 3) return n == 2;
+        if ((n & 1) == 0) return false;
+        long k = n / 2;
+        return (tableFor(n).bits[(int) (k >>> 6)] & (1L << k)) != 0;
+    }
+
+    /**
+     * Наименьшее простое, большее n
+     */
+    // Трудоемкость O(расстояния до простого / 64), если оно не больше limit()
+    // Ресурсоемкость O(1)
+    public long nextPrime(long n) {
+        if (n < 2) return 2;
+        // номер наименьшего нечётного, большего n
+        long k = (n + 1) / 2;
+        Snapshot current = tableFor(2 * k + 1);
+        long[] bits = current.bits;
+        int w = (int) (k >>> 6);
+        long word = bits[w] & (-1L << k);
+        while (word == 0) {
+            if (++w == bits.length) {
+                current = tableFor(current.limit() + 1);
+                bits = current.bits;
+            }
+            word = bits[w];
+        }
+        return 2 * ((long) w * Long.SIZE + Long.numberOfTrailingZeros(word)) + 1;
+    }
+}
@@ -0,0 +1,232 @@
+package lesson2;
+
+import java.util.Arrays;
+
+/**
+ * Суффиксный автомат строки: минимальный автомат, принимающий все её подстроки.
+ *
+ * Строится за O(m) добавлением символов по одному; состояний не больше 2m, переходов не больше 3m.
+ * После startText() символы добавляются как новая строка, так что автомат принимает подстроки
+ * любой из добавленных строк (обобщённый суффиксный автомат, см. {@link CorpusIndex}).
+ * Переходы из корня (их из корня больше всего) хранятся в таблице по значению char, разбитой на страницы
+ * по 256 символов: страница выделяется при первом переходе по её символу, так что память таблицы
+ * пропорциональна алфавиту текста, а не всем 64K значениям char.
+ * Переходы из остальных состояний -- односвязными списками в общих массивах: ничего не выделяется на состояние.
+ */
+class SuffixAutomaton {
+
+    static final int NONE = -1;
+
+    // для каждого состояния: длина самой длинной строки, суффиксная ссылка, первый переход в списке,
+    // позиция (сквозная по всем строкам) конца первого вхождения
+    private int[] length;
+    private int[] link;
+    private int[] firstEdge;
+    private int[] firstEnd;
+    private int states = 0;
+
+    // переходы не из корня
+    private char[] edgeChar;
+    private int[] edgeTarget;
+    private int[] nextEdge;
+    private int edges = 0;
+
+    private static final int PAGE_BITS = 8;
+
+    // страница [c >>> PAGE_BITS] -- переходы из корня по символам с этим старшим байтом, null -- переходов нет
+    private final int[][] rootPages = new int[(Character.MAX_VALUE >>> PAGE_BITS) + 1][];
+
+    private int last;
+
+    // символов добавлено
+    private int position = 0;
+
+    // Трудоемкость O(m)
+    // Ресурсоемкость O(m)
+    SuffixAutomaton(CharSequence text) {
+        this(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            extend(text.charAt(i));
+        }
+    }
+
+    /**
+     * Пустой автомат для строк суммарной длины capacity
+     */
+    SuffixAutomaton(int capacity) {
+        int states = 2 * capacity + 1;
+        length = new int[states];
+        link = new int[states];
+        firstEdge = new int[states];
+        firstEnd = new int[states];
+        edgeChar = new char[states + capacity];
+        edgeTarget = new int[edgeChar.length];
+        nextEdge = new int[edgeChar.length];
+        last = newState(0, NONE, -1);
+    }
+
+    private int newState(int stateLength, int stateLink, int stateEnd) {
+        int state = states++;
+        length[state] = stateLength;
+        link[state] = stateLink;
+        firstEdge[state] = NONE;
+        firstEnd[state] = stateEnd;
+        return state;
+    }
+
+    // переход из state по c или NONE
+    int next(int state, char c) {
+        if (state == 0) {
+            int[] page = rootPages[c >>> PAGE_BITS];
+            return page == null ? NONE : page[c & ((1 << PAGE_BITS) - 1)];
+        }
+        for (int edge = firstEdge[state]; edge != NONE; edge = nextEdge[edge]) {
+            if (edgeChar[edge] == c) return edgeTarget[edge];
+        }
+        return NONE;
+    }
+
+    // добавляет или перенаправляет переход
+    private void setNext(int state, char c, int target) {
+        if (state == 0) {
+            int[] page = rootPages[c >>> PAGE_BITS];
+            if (page == null) {
+                page = new int[1 << PAGE_BITS];
+                Arrays.fill(page, NONE);
+                rootPages[c >>> PAGE_BITS] = page;
+            }
+            page[c & ((1 << PAGE_BITS) - 1)] = target;
+            return;
+        }
+        for (int edge = firstEdge[state]; edge != NONE; edge = nextEdge[edge]) {
+            if (edgeChar[edge] == c) {
+                edgeTarget[edge] = target;
+                return;
+            }
+        }
+        addEdge(state, c, target);
+    }
+
+    // новый переход, которого у state ещё нет
+    private void addEdge(int state, char c, int target) {
+        if (edges == edgeChar.length) {
+            // для нескольких строк оценка 3m переходов не гарантирована
+            edgeChar = Arrays.copyOf(edgeChar, 2 * edges);
+            edgeTarget = Arrays.copyOf(edgeTarget, 2 * edges);
+            nextEdge = Arrays.copyOf(nextEdge, 2 * edges);
+        }
+        int edge = edges++;
+        edgeChar[edge] = c;
+        edgeTarget[edge] = target;
+        nextEdge[edge] = firstEdge[state];
+        firstEdge[state] = edge;
+    }
+
+    /**
+     * Следующие символы -- новая строка
+     */
+    void startText() {
+        last = 0;
+    }
+
+    /**
+     * Добавление символа к текущей строке; возвращает состояние, в котором она (как префикс) теперь лежит
+     */
+    // Трудоемкость O(1) амортизированно
+    int extend(char c) {
+        int end = position++;
+        int q = next(last, c);
+        if (q != NONE) {
+            // текущая строка с c уже есть в автомате как подстрока одной из прежних строк
+            if (length[last] + 1 == length[q]) {
+                last = q;
+            } else {
+                last = split(last, c, q);
+            }
+            return last;
+        }
+        int current = newState(length[last] + 1, NONE, end);
+        int p = last;
+        while (p != NONE && next(p, c) == NONE) {
+            setNext(p, c, current);
+            p = link[p];
+        }
+        if (p == NONE) {
+            link[current] = 0;
+        } else {
+            q = next(p, c);
+            if (length[p] + 1 == length[q]) {
+                link[current] = q;
+            } else {
+                link[current] = split(p, c, q);
+            }
+        }
+        last = current;
+        return current;
+    }
+
+    // q = next(p, c) расщепляется: копия получает те же переходы и более короткую длину length[p] + 1,
+    // переходы по c в q из p и её суффиксов переводятся в копию
+    private int split(int p, char c, int q) {
+        int clone = newState(length[p] + 1, link[q], firstEnd[q]);
+        for (int edge = firstEdge[q]; edge != NONE; edge = nextEdge[edge]) {
+            addEdge(clone, edgeChar[edge], edgeTarget[edge]);
+        }
+        while (p != NONE && next(p, c) == q) {
+            setNext(p, c, clone);
+            p = link[p];
+        }
+        link[q] = clone;
+        return clone;
+    }
+
+    int states() {
+        return states;
+    }
+
+    int length(int state) {
+        return length[state];
+    }
+
+    int link(int state) {
+        return link[state];
+    }
+
+    // сквозная позиция последнего символа первого вхождения строк состояния
+    int firstEnd(int state) {
+        return firstEnd[state];
+    }
+
+    /**
+     * Самая длинная подстрока other, которая есть и в тексте автомата; из равных по длине -- самая ранняя в other.
+     * Возвращает {начало в other, длина}.
+     */
+    // Трудоемкость O(n), n - длина other (каждый шаг по суффиксной ссылке укорачивает совпадение)
+    // Ресурсоемкость O(1)
+    int[] longestCommonSubstring(CharSequence other) {
+        int state = 0;
+        int matched = 0;
+        int best = 0;
+        int bestEnd = 0;
+        for (int i = 0; i < other.length(); i++) {
+            char c = other.charAt(i);
+            while (state != 0 && next(state, c) == NONE) {
+                state = link[state];
+                matched = length[state];
+            }
+            int target = next(state, c);
+            if (target == NONE) {
+                matched = 0;
+            } else {
+                state = target;
+                matched++;
+            }
+            // при равной длине раньше кончается -- раньше начинается
+            if (matched > best) {
+                best = matched;
+                bestEnd = i + 1;
+            }
+        }
+        return new int[]{bestEnd - best, best};
+    }
+}
@@ -0,0 +1,525 @@
+package lesson3;
+
+import java.util.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Самобалансирующееся двоичное дерево поиска (АВЛ-дерево).
+ *
+ * В отличие от {@link BinarySearchTree}, высоты левого и правого поддеревьев любого узла различаются
+ * не больше чем на 1: после каждого добавления и удаления высоты пересчитываются от изменённого места
+ * до корня, а нарушения исправляются поворотами. Поэтому высота не больше 1.45 log2(n + 2)
+ * и на отсортированных данных, а add, remove и contains -- O(log n).
+ *
+ * Узлы хранят ссылку на родителя, так что поиск, итератор и балансировка обходятся без рекурсии и стека.
+ */
+// attention: Comparable is supported but Comparator is not
+public class AvlTree<T extends Comparable<T>> extends AbstractSet<T> implements CheckableSortedSet<T> {
+
+    private static class Node<T> {
+        // меняется только при удалении узла с двумя детьми: в него переносится значение следующего
+        T value;
+        Node<T> left = null;
+        Node<T> right = null;
+        Node<T> parent;
+        // высота поддерева с корнем в этом узле, у листа -- 1
+        int height = 1;
+
+        Node(T value, Node<T> parent) {
+            this.value = value;
+            this.parent = parent;
+        }
+    }
+
+    private Node<T> root = null;
+
+    private int size = 0;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void updateHeight(Node<?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    // Трудоемкость O(log n)
+    private Node<T> find(T value) {
+        Node<T> current = root;
+        while (current != null) {
+            int comparison = value.compareTo(current.value);
+            if (comparison == 0) return current;
+            current = comparison < 0 ? current.left : current.right;
+        }
+        return null;
+    }
+
+    // наименьший узел со значением не меньше value
+    private Node<T> ceiling(T value) {
+        Node<T> result = null;
+        Node<T> current = root;
+        while (current != null) {
+            int comparison = value.compareTo(current.value);
+            if (comparison == 0) return current;
+            if (comparison < 0) {
+                result = current;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return result;
+    }
+
+    // наибольший узел со значением меньше value
+    private Node<T> lower(T value) {
+        Node<T> result = null;
+        Node<T> current = root;
+        while (current != null) {
+            if (value.compareTo(current.value) > 0) {
+                result = current;
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        return result;
+    }
+
+    private Node<T> firstNode() {
+        Node<T> current = root;
+        if (current == null) return null;
+        while (current.left != null) {
+            current = current.left;
+        }
+        return current;
+    }
+
+    private Node<T> lastNode() {
+        Node<T> current = root;
+        if (current == null) return null;
+        while (current.right != null) {
+            current = current.right;
+        }
+        return current;
+    }
+
+    // следующий по порядку узел
+    // Трудоемкость O(log n), O(1) амортизированно при обходе
+    private static <T> Node<T> successor(Node<T> node) {
+        if (node.right != null) {
+            Node<T> current = node.right;
+            while (current.left != null) {
+                current = current.left;
+            }
+            return current;
+        }
+        Node<T> current = node;
+        while (current.parent != null && current.parent.right == current) {
+            current = current.parent;
+        }
+        return current.parent;
+    }
+
+    // Трудоемкость O(log n)
+    // Ресурсоемкость O(1)
+    @Override
+    public boolean contains(Object o) {
+        @SuppressWarnings("unchecked")
+        T t = (T) o;
+        return find(t) != null;
+    }
+
+    /**
+     * Добавление элемента в дерево
+     *
+     * Спецификация: {@link Set#add(Object)}
+     */
+    // Трудоемкость O(log n)
+    // Ресурсоемкость O(1)
+    @Override
+    public boolean add(T t) {
+        if (root == null) {
+            root = new Node<>(t, null);
+            size++;
+            return true;
+        }
+        Node<T> parent = root;
+        int comparison;
+        while (true) {
+            comparison = t.compareTo(parent.value);
+            if (comparison == 0) return false;
+            Node<T> next = comparison < 0 ? parent.left : parent.right;
+            if (next == null) break;
+            parent = next;
+        }
+        Node<T> node = new Node<>(t, parent);
+        if (comparison < 0) {
+            parent.left = node;
+        } else {
+            parent.right = node;
+        }
+        size++;
+        rebalance(parent);
+        return true;
+    }
+
+    /**
+     * Удаление элемента из дерева
+     *
+     * Спецификация: {@link Set#remove(Object)}
+     */
+    // Трудоемкость O(log n)
+    // Ресурсоемкость O(1)
+    @Override
+    public boolean remove(Object o) {
+        @SuppressWarnings("unchecked")
+        T t = (T) o;
+        Node<T> node = find(t);
+        if (node == null) return false;
+        removeNode(node);
+        return true;
+    }
+
+    // у узла с двумя детьми в него переносится значение следующего, а удаляется узел следующего:
+    // у того нет левого ребёнка
+    private void removeNode(Node<T> node) {
+        if (node.left != null && node.right != null) {
+            Node<T> next = successor(node);
+            node.value = next.value;
+            node = next;
+        }
+        Node<T> child = node.left != null ? node.left : node.right;
+        Node<T> parent = node.parent;
+        if (child != null) child.parent = parent;
+        replaceChild(parent, node, child);
+        size--;
+        rebalance(parent);
+    }
+
+    private void replaceChild(Node<T> parent, Node<T> child, Node<T> replacement) {
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.left == child) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+    }
+
+    // пересчёт высот от node до корня с поворотами там, где высоты поддеревьев различаются на 2
+    // Трудоемкость O(log n)
+    private void rebalance(Node<T> node) {
+        while (node != null) {
+            int balance = height(node.right) - height(node.left);
+            if (balance > 1) {
+                // правый-левый случай правым поворотом сводится к правому-правому
+                if (height(node.right.left) > height(node.right.right)) rotateRight(node.right);
+                node = rotateLeft(node);
+            } else if (balance < -1) {
+                if (height(node.left.right) > height(node.left.left)) rotateLeft(node.left);
+                node = rotateRight(node);
+            } else {
+                updateHeight(node);
+            }
+            node = node.parent;
+        }
+    }
+
+    // левый поворот: правый ребёнок node становится на её место, node -- его левым ребёнком;
+    // возвращает новый корень поддерева
+    //     node              right
+    //    /    \            /     \
+    //   a    right  =>   node     c
+    //        /   \      /    \
+    //       b     c    a      b
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        if (right.left != null) right.left.parent = node;
+        right.parent = node.parent;
+        replaceChild(node.parent, node, right);
+        right.left = node;
+        node.parent = right;
+        updateHeight(node);
+        updateHeight(right);
+        return right;
+    }
+
+    // правый поворот, зеркально левому: левый ребёнок node становится на её место
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        if (left.right != null) left.right.parent = node;
+        left.parent = node.parent;
+        replaceChild(node.parent, node, left);
+        left.right = node;
+        node.parent = left;
+        updateHeight(node);
+        updateHeight(left);
+        return left;
+    }
+
+    @Nullable
+    @Override
+    public Comparator<? super T> comparator() {
+        return null;
+    }
+
+    @NotNull
+    @Override
+    public Iterator<T> iterator() {
+        return new AvlTreeIterator(firstNode(), null);
+    }
+
+    public class AvlTreeIterator implements Iterator<T> {
+
+        private Node<T> next;
+
+        // верхняя граница (не включительно) для подмножеств, null -- её нет
+        private final T to;
+
+        private Node<T> lastReturned = null;
+
+        private AvlTreeIterator(Node<T> first, T to) {
+            this.to = to;
+            next = bounded(first);
+        }
+
+        private Node<T> bounded(Node<T> node) {
+            return node == null || to == null || node.value.compareTo(to) < 0 ? node : null;
+        }
+
+        // Трудоемкость O(1)
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        // Трудоемкость O(1) амортизированно
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = bounded(successor(next));
+            return lastReturned.value;
+        }
+
+        // Трудоемкость O(log n)
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            // у узла с двумя детьми удаляется узел следующего, а его значение переезжает в lastReturned
+            if (lastReturned.left != null && lastReturned.right != null && next != null) {
+                next = lastReturned;
+            }
+            removeNode(lastReturned);
+            lastReturned = null;
+        }
+    }
+
+    /**
+     * Подмножество всех элементов в диапазоне [fromElement, toElement).
+     * Изменения в дереве отображаются в подмножестве, и наоборот
+     */
+    @NotNull
+    @Override
+    public SortedSet<T> subSet(T fromElement, T toElement) {
+        if (fromElement.compareTo(toElement) > 0) {
+            throw new IllegalArgumentException();
+        }
+        return new SubSet(fromElement, toElement);
+    }
+
+    /**
+     * Подмножество всех элементов строго меньше заданного
+     */
+    @NotNull
+    @Override
+    public SortedSet<T> headSet(T toElement) {
+        return new SubSet(null, Objects.requireNonNull(toElement));
+    }
+
+    /**
+     * Подмножество всех элементов нестрого больше заданного
+     */
+    @NotNull
+    @Override
+    public SortedSet<T> tailSet(T fromElement) {
+        return new SubSet(Objects.requireNonNull(fromElement), null);
+    }
+
+    // диапазон [from, to) дерева; null -- граница не задана
+    private class SubSet extends AbstractSet<T> implements SortedSet<T> {
+
+        private final T from;
+
+        private final T to;
+
+        private SubSet(T from, T to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        private boolean inRange(T t) {
+            return (from == null || t.compareTo(from) >= 0) && (to == null || t.compareTo(to) < 0);
+        }
+
+        // вложенное подмножество -- пересечение с [from, to); если его границы перекрещиваются, оно пусто
+        private T lowerBound(T bound) {
+            return from == null || bound.compareTo(from) > 0 ? bound : from;
+        }
+
+        private T upperBound(T bound) {
+            return to == null || bound.compareTo(to) < 0 ? bound : to;
+        }
+
+        private Node<T> firstNode() {
+            Node<T> node = from == null ? AvlTree.this.firstNode() : ceiling(from);
+            return node == null || to == null || node.value.compareTo(to) < 0 ? node : null;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            @SuppressWarnings("unchecked")
+            T t = (T) o;
+            return inRange(t) && AvlTree.this.contains(t);
+        }
+
+        @Override
+        public boolean add(T t) {
+            if (!inRange(t)) {
+                throw new IllegalArgumentException();
+            }
+            return AvlTree.this.add(t);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            @SuppressWarnings("unchecked")
+            T t = (T) o;
+            if (!inRange(t)) {
+                throw new IllegalArgumentException();
+            }
+            return AvlTree.this.remove(t);
+        }
+
+        @NotNull
+        @Override
+        public Iterator<T> iterator() {
+            return new AvlTreeIterator(firstNode(), to);
+        }
+
+        // Трудоемкость O(k + log n), k -- размер подмножества
+        @Override
+        public int size() {
+            int count = 0;
+            for (Iterator<T> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+                count++;
+            }
+            return count;
+        }
+
+        @Nullable
+        @Override
+        public Comparator<? super T> comparator() {
+            return null;
+        }
+
+        @NotNull
+        @Override
+        public SortedSet<T> subSet(T fromElement, T toElement) {
+            return new SubSet(lowerBound(Objects.requireNonNull(fromElement)),
+                    upperBound(Objects.requireNonNull(toElement)));
+        }
+
+        @NotNull
+        @Override
+        public SortedSet<T> headSet(T toElement) {
+            return new SubSet(from, upperBound(Objects.requireNonNull(toElement)));
+        }
+
+        @NotNull
+        @Override
+        public SortedSet<T> tailSet(T fromElement) {
+            return new SubSet(lowerBound(Objects.requireNonNull(fromElement)), to);
+        }
+
+        @Override
+        public T first() {
+            Node<T> node = firstNode();
+            if (node == null) throw new NoSuchElementException();
+            return node.value;
+        }
+
+        @Override
+        public T last() {
+            Node<T> node = to == null ? lastNode() : lower(to);
+            if (node == null || from != null && node.value.compareTo(from) < 0) {
+                throw new NoSuchElementException();
+            }
+            return node.value;
+        }
+    }
+
+    @Override
+    public T first() {
+        Node<T> node = firstNode();
+        if (node == null) throw new NoSuchElementException();
+        return node.value;
+    }
+
+    @Override
+    public T last() {
+        Node<T> node = lastNode();
+        if (node == null) throw new NoSuchElementException();
+        return node.value;
+    }
+
+    // Трудоемкость O(1)
+    public int height() {
+        return height(root);
+    }
+
+    /**
+     * Проверка всех свойств дерева: порядок значений, ссылки на родителей,
+     * сохранённые высоты, баланс (высоты поддеревьев различаются не больше чем на 1) и размер
+     */
+    // Трудоемкость O(n)
+    // Ресурсоемкость O(log n)
+    public boolean checkInvariant() {
+        if (root == null) return size == 0;
+        return root.parent == null && checkInvariant(root, null, null) == size;
+    }
+
+    // количество узлов поддерева или -1, если свойства нарушены; значения поддерева -- в (min, max)
+    private int checkInvariant(Node<T> node, T min, T max) {
+        if (node == null) return 0;
+        if (min != null && node.value.compareTo(min) <= 0 || max != null && node.value.compareTo(max) >= 0) {
+            return -1;
+        }
+        if (node.left != null && node.left.parent != node || node.right != null && node.right.parent != node) {
+            return -1;
+        }
+        int leftHeight = height(node.left);
+        int rightHeight = height(node.right);
+        if (Math.abs(leftHeight - rightHeight) > 1 || node.height != 1 + Math.max(leftHeight, rightHeight)) {
+            return -1;
+        }
+        int left = checkInvariant(node.left, min, node.value);
+        if (left < 0) return -1;
+        int right = checkInvariant(node.right, node.value, max);
+        if (right < 0) return -1;
+        return left + right + 1;
+    }
+}
@@ -0,0 +1,119 @@
+package lesson5;
+
+import java.util.Arrays;
+
+/**
+ * Счётчик вхождений целых чисел: отображение int -> int на открытой адресации.
+ *
+ * Схема проб та же, что в {@link OpenAddressingSet}: начальная ячейка по хэшу ключа,
+ * затем линейный перебор до ключа или пустой ячейки. Ключи и значения хранятся в двух
+ * массивах примитивов, без упаковки в Integer. Удалений нет, поэтому не нужна и метка DELETED:
+ * ячейка пуста, если её счётчик равен нулю. Таблица удваивается при заполнении наполовину,
+ * так что цепочки проб остаются короткими.
+ */
+@SuppressWarnings("WeakerAccess")
+public class IntCounterMap {
+
+    private int bits;
+
+    private int[] keys;
+
+    private int[] counts;
+
+    private int size = 0;
+
+    public IntCounterMap() {
+        this(4);
+    }
+
+    public IntCounterMap(int bits) {
+        if (bits < 2 || bits > 30) {
+            throw new IllegalArgumentException();
+        }
+        this.bits = bits;
+        keys = new int[1 << bits];
+        counts = new int[1 << bits];
+    }
+
+    // Фибоначчиево хэширование: старшие bits бит произведения на 2^32 / φ.
+    // В отличие от hashCode() & mask, подряд идущие и кратные степени двойки ключи
+    // не попадают в соседние ячейки
+    private int startingIndex(int key) {
+        return (key * 0x9E3779B9) >>> (32 - bits);
+    }
+
+    /**
+     * Количество различных ключей
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Удаление всех ключей; размер таблицы сохраняется
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    /**
+     * Сколько раз встретился ключ (0, если ни разу)
+     */
+    // Трудоемкость O(1) в среднем
+    // Ресурсоемкость O(1)
+    public int get(int key) {
+        int mask = keys.length - 1;
+        for (int index = startingIndex(key); counts[index] != 0; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                return counts[index];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Увеличение счётчика ключа на 1; возвращает новое значение счётчика
+     */
+    // Трудоемкость O(1) в среднем (амортизированно, с учётом расширения)
+    // Ресурсоемкость O(1) амортизированно
+    public int increment(int key) {
+        int mask = keys.length - 1;
+        int index = startingIndex(key);
+        while (counts[index] != 0) {
+            if (keys[index] == key) {
+                return ++counts[index];
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        counts[index] = 1;
+        if (++size > keys.length / 2) {
+            grow();
+        }
+        return 1;
+    }
+
+    // Трудоемкость O(size)
+    // Ресурсоемкость O(size)
+    private void grow() {
+        if (bits == 30) {
+            throw new IllegalStateException("Table is full");
+        }
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        bits++;
+        keys = new int[1 << bits];
+        counts = new int[1 << bits];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] == 0) continue;
+            int index = startingIndex(oldKeys[i]);
+            while (counts[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            counts[index] = oldCounts[i];
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package lesson1
+
+import org.junit.jupiter.api.Tag
+import java.io.File
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class ByteLineReaderTest {
+
+    private fun <R> withReader(content: String, bufferSize: Int, body: (ByteLineReader) -> R): R {
+        val file = File("temp_lines.txt")
+        try {
+            file.writeText(content)
+            return ByteLineReader(file.path, bufferSize).use(body)
+        } finally {
+            file.delete()
+        }
+    }
+
+    @Test
+    @Tag("Example")
+    fun parseLines() {
+        // буфер из одного байта: каждая строка пересекает границу блока
+        for (bufferSize in listOf(1, 4, 1 shl 16)) {
+            withReader("12\r\n-7\n\n+3\n${Int.MIN_VALUE}", bufferSize) { reader ->
+                val numbers = mutableListOf<Int?>()
+                while (reader.nextLine()) {
+                    numbers += if (reader.isEmptyLine) null else reader.parseInt()
+                }
+                assertEquals(listOf(12, -7, null, 3, Int.MIN_VALUE), numbers)
+            }
+        }
+    }
+
+    @Test
+    @Tag("Example")
+    fun parseTenthsAndTime() {
+        withReader("-12.6\n+120.3\n0.0\n12:00:00 AM\n12:40:31 PM\n07:26:57 PM\n", 8) { reader ->
+            assertTrue(reader.nextLine())
+            assertEquals(-126, reader.parseTenths())
+            assertTrue(reader.nextLine())
+            assertEquals(1203, reader.parseTenths())
+            assertTrue(reader.nextLine())
+            assertEquals(0, reader.parseTenths())
+            assertTrue(reader.nextLine())
+            assertEquals(0, reader.parseTime())
+            assertTrue(reader.nextLine())
+            assertEquals(12 * 3600 + 40 * 60 + 31, reader.parseTime())
+            assertTrue(reader.nextLine())
+            assertEquals(19 * 3600 + 26 * 60 + 57, reader.parseTime())
+            assertFalse(reader.nextLine())
+        }
+    }
+
+    @Test
+    @Tag("Example")
+    fun invalidFormat() {
+        for (line in listOf("13:00:03 AM", "1:00:03 AM", "01:60:00 PM", "01:00:00 XM", "01:00:00PM")) {
+            withReader(line, 16) { reader ->
+                reader.nextLine()
+                assertFailsWith<IllegalArgumentException> { reader.parseTime() }
+            }
+        }
+        for (line in listOf("600", "1.25", "-.5", "1,5", "")) {
+            withReader("$line\n", 16) { reader ->
+                reader.nextLine()
+                assertFailsWith<IllegalArgumentException> { reader.parseTenths() }
+            }
+        }
+        for (line in listOf("2147483648", "-", "12a", "")) {
+            withReader("$line\n", 16) { reader ->
+                reader.nextLine()
+                assertFailsWith<IllegalArgumentException> { reader.parseInt() }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package lesson1
+
+import org.junit.jupiter.api.Tag
+import java.io.File
+import java.util.*
+import kotlin.test.Test
+
+class ExternalSortTest : AbstractFileTests() {
+
+    private fun generateLines(size: Int): List<String> {
+        val random = Random()
+        val lines = List(size) {
+            if (random.nextInt(3) == 0) "Житель ${random.nextInt(1000)}" else random.nextInt(100000).toString()
+        }
+        File("temp_unsorted.txt").writeText(lines.joinToString(separator = "\n", postfix = "\n"))
+        return lines
+    }
+
+    private fun testSortLines(size: Int, memoryBudget: Long) {
+        try {
+            val lines = generateLines(size)
+            ExternalSort.sortLines("temp_unsorted.txt", "temp_sorted.txt", naturalOrder<String>(), memoryBudget)
+            assertFileContent("temp_sorted.txt", lines.sorted())
+        } finally {
+            File("temp_unsorted.txt").delete()
+            File("temp_sorted.txt").delete()
+        }
+    }
+
+    @Test
+    @Tag("Example")
+    fun sortLinesInMemory() {
+        testSortLines(10_000, 1L shl 30)
+    }
+
+    @Test
+    @Tag("Example")
+    fun sortLinesWithRuns() {
+        // около сотни серий, одно слияние
+        testSortLines(100_000, 64 * 1024)
+    }
+
+    @Test
+    @Tag("Example")
+    fun sortLinesMultiPass() {
+        // больше MAX_FAN_IN серий, слияние в несколько проходов
+        testSortLines(100_000, 8 * 1024)
+    }
+
+    @Test
+    @Tag("Example")
+    fun sortEmptyFile() {
+        try {
+            ExternalSort.sortLines("input/empty.txt", "temp_sorted.txt")
+            assertFileContent("temp_sorted.txt", "")
+        } finally {
+            File("temp_sorted.txt").delete()
+        }
+    }
+}
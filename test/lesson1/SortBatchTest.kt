@@ -0,0 +1,55 @@
+package lesson1
+
+import org.junit.jupiter.api.Tag
+import java.io.File
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class SortBatchTest : AbstractFileTests() {
+
+    @Test
+    @Tag("Example")
+    fun runBatch() {
+        val inputs = listOf(
+            "time_in1" to SortBatch.Task.TIMES,
+            "time_in3" to SortBatch.Task.TIMES,
+            "temp_in1" to SortBatch.Task.TEMPERATURES,
+            "seq_in1" to SortBatch.Task.SEQUENCE,
+            "seq_in3" to SortBatch.Task.SEQUENCE,
+            "addr_in1" to SortBatch.Task.ADDRESSES,
+            "my_test_sorttimes" to SortBatch.Task.TIMES,
+            "no_such_file" to SortBatch.Task.SEQUENCE,
+        )
+        // каждый файл несколько раз: потоки переиспользуют буферы между заданиями
+        val jobs = (1..5).flatMap { copy ->
+            inputs.map { (name, task) -> SortBatch.Job("input/$name.txt", "temp_batch_${name}_$copy.txt", task) }
+        }
+        try {
+            val results = SortBatch.run(jobs, 4)
+            assertEquals(jobs, results.map { it.job })
+            for (result in results) {
+                val job = result.job
+                if (job.inputName == "input/my_test_sorttimes.txt" || job.inputName == "input/no_such_file.txt") {
+                    assertFalse(result.isSuccessful, "$job should have failed")
+                    continue
+                }
+                assertTrue(result.isSuccessful, "$result")
+                assertTrue(result.time > 0)
+                when (job.task!!) {
+                    SortBatch.Task.TIMES -> JavaTasks.sortTimes(job.inputName, "temp.txt")
+                    SortBatch.Task.TEMPERATURES -> JavaTasks.sortTemperatures(job.inputName, "temp.txt")
+                    SortBatch.Task.SEQUENCE -> JavaTasks.sortSequence(job.inputName, "temp.txt")
+                    SortBatch.Task.ADDRESSES -> JavaTasks.sortAddresses(job.inputName, "temp.txt")
+                }
+                assertFileContent(job.outputName, File("temp.txt").readLines())
+            }
+        } finally {
+            File("temp.txt").delete()
+            for (job in jobs) {
+                File(job.outputName).delete()
+            }
+        }
+    }
+}
@@ -3,7 +3,11 @@ package lesson1;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +47,65 @@ public class SortsTest {
         assertSorted(arr, "INSERTION SORT");
     }
 
+    @Test
+    @Tag("Example")
+    public void comparatorSorts() {
+        String[] arr = new String[] { "beta", "omega", "alpha", "", "!!!", "teta", "O" };
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        String[] copy = arr.clone();
+        Sorts.mergeSort(copy, byLength);
+        assertArrayEquals(new String[] { "", "O", "!!!", "beta", "teta", "omega", "alpha" }, copy);
+        copy = arr.clone();
+        Sorts.quickSort(copy, Comparator.reverseOrder());
+        assertArrayEquals(new String[] { "teta", "omega", "beta", "alpha", "O", "!!!", "" }, copy);
+        copy = arr.clone();
+        Sorts.heapSort(copy, Comparator.naturalOrder());
+        assertSorted(copy, "HEAP SORT COMPARATOR");
+        List<String> list = new ArrayList<>(Arrays.asList(arr));
+        Sorts.mergeSort(list, byLength);
+        assertEquals(Arrays.asList("", "O", "!!!", "beta", "teta", "omega", "alpha"), list);
+    }
+
+    @Test
+    @Tag("Example")
+    public void longComparatorSorts() {
+        int LENGTH = 65536;
+        Integer[] arr = new Integer[LENGTH];
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = r.nextInt(LENGTH / 4);
+        }
+        Integer[] expected = arr.clone();
+        Arrays.sort(expected);
+        Integer[] copy = arr.clone();
+        Sorts.mergeSort(copy, Comparator.naturalOrder());
+        assertArrayEquals(expected, copy);
+        copy = arr.clone();
+        Sorts.quickSort(copy, Comparator.naturalOrder());
+        assertArrayEquals(expected, copy);
+        copy = arr.clone();
+        Sorts.heapSort(copy, Comparator.naturalOrder());
+        assertArrayEquals(expected, copy);
+    }
+
+    @Test
+    @Tag("Example")
+    public void sortByKey() {
+        int LENGTH = 65536;
+        long[][] arr = new long[LENGTH][];
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = new long[] { r.nextInt(100) - 50, r.nextLong(), i };
+        }
+        long[][] expected = arr.clone();
+        Arrays.sort(expected, Comparator.comparingLong(record -> record[0]));
+        long[][] copy = arr.clone();
+        Sorts.sortByIntKey(copy, record -> (int) record[0]);
+        assertArrayEquals(expected, copy);
+        Arrays.sort(expected, Comparator.comparingLong(record -> record[1]));
+        copy = arr.clone();
+        Sorts.sortByLongKey(copy, record -> record[1]);
+        assertArrayEquals(expected, copy);
+    }
+
     @Test
     @Tag("Example")
     public void mergeSort() {
@@ -75,6 +138,57 @@ public class SortsTest {
         assertSorted(arr, "MERGE SORT LONG");
     }
 
+    @Test
+    @Tag("Example")
+    public void longParallelMergeSort() {
+        int LENGTH = 262144;
+        int[] arr = new int[LENGTH];
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = r.nextInt();
+        }
+        int[] expected = arr.clone();
+        Sorts.mergeSort(expected);
+        Sorts.parallelMergeSort(arr, 4);
+        assertSorted(arr, "PARALLEL MERGE SORT LONG");
+        assertArrayEquals(expected, arr);
+    }
+
+    @Test
+    @Tag("Example")
+    public void longNaturalMergeSort() {
+        int LENGTH = 65536;
+        int[] arr = new int[LENGTH];
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = r.nextInt();
+        }
+        Sorts.naturalMergeSort(arr);
+        assertSorted(arr, "NATURAL MERGE SORT LONG");
+        // почти упорядоченный массив: редкие выбросы и убывающие куски
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = (i / 1000) % 2 == 0 ? i : LENGTH - i;
+            if (r.nextInt(100) == 0) arr[i] = r.nextInt(LENGTH);
+        }
+        int[] expected = arr.clone();
+        Arrays.sort(expected);
+        Sorts.naturalMergeSort(arr);
+        assertArrayEquals(expected, arr);
+    }
+
+    @Test
+    @Tag("Example")
+    public void longNaturalMergeSortStability() {
+        int LENGTH = 65536;
+        int[][] arr = new int[LENGTH][];
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = new int[] { i < LENGTH / 2 ? i / 100 : r.nextInt(100), i };
+        }
+        int[][] expected = arr.clone();
+        Comparator<int[]> byKey = Comparator.comparingInt(record -> record[0]);
+        Arrays.sort(expected, byKey);
+        Sorts.naturalMergeSort(arr, byKey);
+        assertArrayEquals(expected, arr);
+    }
+
     @Test
     @Tag("Example")
     public void longHeapSort() {
@@ -87,6 +201,21 @@ public class SortsTest {
         assertSorted(arr, "HEAP SORT LONG");
     }
 
+    @Test
+    @Tag("Example")
+    public void longBottomUpHeapSort() {
+        int LENGTH = 65536;
+        for (int arity : new int[] { 2, 4 }) {
+            int[] arr = new int[LENGTH];
+            for (int i=0; i<LENGTH; i++) {
+                arr[i] = r.nextInt();
+            }
+            Sorts.bottomUpHeapSort(arr, arity);
+            assertSorted(arr, "BOTTOM-UP HEAP SORT LONG, ARITY " + arity);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Sorts.bottomUpHeapSort(new int[1], 3));
+    }
+
     @Test
     @Tag("Example")
     public void quickSort() {
@@ -107,6 +236,67 @@ public class SortsTest {
         assertSorted(arr, "QUICK SORT LONG");
     }
 
+    @Test
+    @Tag("Example")
+    public void longIntroSort() {
+        int LENGTH = 65536;
+        int[] arr = new int[LENGTH];
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = r.nextInt();
+        }
+        Sorts.introSort(arr);
+        assertSorted(arr, "INTRO SORT LONG");
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = r.nextInt(3);
+        }
+        Sorts.introSort(arr);
+        assertSorted(arr, "INTRO SORT DUPLICATES");
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = i % 2 == 0 ? i : LENGTH - i;
+        }
+        Sorts.introSort(arr);
+        assertSorted(arr, "INTRO SORT ORGAN PIPE");
+    }
+
+    @Test
+    @Tag("Example")
+    public void longSelect() {
+        int LENGTH = 65536;
+        int[] arr = new int[LENGTH];
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = r.nextInt(LENGTH);
+        }
+        int[] expected = arr.clone();
+        Arrays.sort(expected);
+        for (int k : new int[] { 0, 1, LENGTH / 2, LENGTH - 1, r.nextInt(LENGTH) }) {
+            int[] copy = arr.clone();
+            assertEquals(expected[k], Sorts.select(copy, k));
+            for (int i=0; i<k; i++) {
+                assertTrue(copy[i] <= copy[k]);
+            }
+            for (int i=k+1; i<LENGTH; i++) {
+                assertTrue(copy[i] >= copy[k]);
+            }
+        }
+    }
+
+    @Test
+    @Tag("Example")
+    public void longTopKAndPartialSort() {
+        int LENGTH = 65536;
+        int K = 1000;
+        int[] arr = new int[LENGTH];
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = r.nextInt();
+        }
+        int[] expected = arr.clone();
+        Arrays.sort(expected);
+        expected = Arrays.copyOf(expected, K);
+        assertArrayEquals(expected, Sorts.topK(arr, K));
+        Sorts.partialSort(arr, K);
+        assertArrayEquals(expected, Arrays.copyOf(arr, K));
+    }
+
     @Test
     @Tag("Example")
     public void longCountingSort() {
@@ -121,4 +311,41 @@ public class SortsTest {
         Sorts.quickSort(arr);
         assertArrayEquals(arr, result);
     }
+
+    @Test
+    @Tag("Example")
+    public void longRadixSort() {
+        int LENGTH = 65536;
+        int[] arr = new int[LENGTH];
+        int[] buffer = new int[LENGTH];
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = r.nextInt();
+        }
+        int[] expected = arr.clone();
+        Sorts.quickSort(expected);
+        Sorts.radixSort(arr, buffer);
+        assertSorted(arr, "RADIX SORT LONG");
+        assertArrayEquals(expected, arr);
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = r.nextInt(1000) - 500;
+        }
+        expected = arr.clone();
+        Sorts.quickSort(expected);
+        Sorts.radixSort(arr, buffer);
+        assertArrayEquals(expected, arr);
+    }
+
+    @Test
+    @Tag("Example")
+    public void longRadixSortLongs() {
+        int LENGTH = 65536;
+        long[] arr = new long[LENGTH];
+        for (int i=0; i<LENGTH; i++) {
+            arr[i] = r.nextLong();
+        }
+        long[] expected = arr.clone();
+        Arrays.sort(expected);
+        Sorts.radixSort(arr);
+        assertArrayEquals(expected, arr);
+    }
 }
\ No newline at end of file
@@ -2,8 +2,11 @@ package lesson1
 
 import org.junit.jupiter.api.Assertions.assertArrayEquals
 import org.junit.jupiter.api.Tag
+import util.PerfResult
+import util.estimate
 import kotlin.test.Test
 import java.util.*
+import kotlin.system.measureNanoTime
 import kotlin.test.assertTrue
 
 class SortsTestKt {
@@ -72,6 +75,21 @@ class SortsTestKt {
         assertSorted(arr, "MERGE SORT LONG")
     }
 
+    @Test
+    @Tag("Example")
+    fun longParallelMergeSort() {
+        val length = 262144
+        val arr = IntArray(length)
+        for (i in 0 until length) {
+            arr[i] = r.nextInt()
+        }
+        val expected = arr.copyOf()
+        mergeSort(expected)
+        parallelMergeSort(arr, 4)
+        assertSorted(arr, "PARALLEL MERGE SORT LONG")
+        assertArrayEquals(expected, arr)
+    }
+
     @Test
     @Tag("Example")
     fun longHeapSort() {
@@ -84,6 +102,20 @@ class SortsTestKt {
         assertSorted(arr, "HEAP SORT LONG")
     }
 
+    @Test
+    @Tag("Example")
+    fun heapSortsPerformance() {
+        fun perf(sort: (IntArray) -> Unit) = estimate(listOf(1_000_000, 2_000_000, 4_000_000)) { size ->
+            val arr = IntArray(size) { r.nextInt() }
+            val time = measureNanoTime { sort(arr) }
+            assertSorted(arr, "HEAP SORT PERF")
+            PerfResult(size = size, time = time, data = Unit)
+        }
+        println("Sorts.heapSort: ${perf { Sorts.heapSort(it) }}")
+        println("Sorts.bottomUpHeapSort, arity 2: ${perf { Sorts.bottomUpHeapSort(it, 2) }}")
+        println("Sorts.bottomUpHeapSort, arity 4: ${perf { Sorts.bottomUpHeapSort(it, 4) }}")
+    }
+
     @Test
     @Tag("Example")
     fun quickSort() {
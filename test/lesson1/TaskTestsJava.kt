@@ -1,7 +1,12 @@
 package lesson1
 
 import org.junit.jupiter.api.Tag
+import java.io.File
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
 import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
 
 class TaskTestsJava : AbstractTaskTests() {
 
@@ -23,15 +28,69 @@ class TaskTestsJava : AbstractTaskTests() {
         sortTemperatures { inputName, outputName -> JavaTasks.sortTemperatures(inputName, outputName) }
     }
 
+    @Test
+    @Tag("4")
+    fun testSortTemperaturesParallelJava() {
+        sortTemperatures { inputName, outputName -> JavaTasks.sortTemperatures(inputName, outputName, 4) }
+    }
+
+    @Test
+    @Tag("4")
+    fun testSortTemperaturesExecutorJava() {
+        // один пул на все вызовы: после них он остаётся рабочим
+        val executor = Executors.newFixedThreadPool(2)
+        try {
+            sortTemperatures { inputName, outputName -> JavaTasks.sortTemperatures(inputName, outputName, 4, executor) }
+            assertFalse(executor.isShutdown)
+        } finally {
+            executor.shutdown()
+        }
+        // пул, не принимающий задач: все куски считает вызывающий поток
+        sortTemperatures { inputName, outputName ->
+            JavaTasks.sortTemperatures(inputName, outputName, 4) { throw RejectedExecutionException() }
+        }
+    }
+
     @Test
     @Tag("4")
     fun testSortSequenceJava() {
         sortSequence { inputName, outputName -> JavaTasks.sortSequence(inputName, outputName) }
     }
 
+    @Test
+    @Tag("4")
+    fun testSortSequenceInPlaceJava() {
+        for (index in 1..6) {
+            try {
+                JavaTasks.sortSequence("input/seq_in$index.txt", "temp_expected.txt")
+                File("input/seq_in$index.txt").copyTo(File("temp.txt"), overwrite = true)
+                JavaTasks.sortSequence("temp.txt", "temp.txt")
+                assertEquals(File("temp_expected.txt").readLines(), File("temp.txt").readLines())
+            } finally {
+                File("temp.txt").delete()
+                File("temp_expected.txt").delete()
+            }
+        }
+    }
+
     @Test
     @Tag("2")
     fun testMergeArraysJava() {
         mergeArrays { first, second -> JavaTasks.mergeArrays<Int?>(first, second) }
     }
+
+    @Test
+    @Tag("2")
+    fun testMergeArraysPrimitiveJava() {
+        mergeArrays { first, second ->
+            val result = IntArray(second.size) { second[it] ?: 0 }
+            JavaTasks.mergeArrays(first.toIntArray(), result)
+            result.forEachIndexed { i, element -> second[i] = element }
+        }
+        mergeArrays { first, second ->
+            val result = LongArray(second.size) { second[it]?.toLong() ?: 0 }
+            JavaTasks.mergeArrays(LongArray(first.size) { first[it].toLong() }, result)
+            result.forEachIndexed { i, element -> second[i] = element.toInt() }
+        }
+    }
 }
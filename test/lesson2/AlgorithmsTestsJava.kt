@@ -1,7 +1,15 @@
 package lesson2
 
 import org.junit.jupiter.api.Tag
+import java.io.File
+import java.util.*
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
 import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
 
 class AlgorithmsTestsJava : AbstractAlgorithmsTests() {
     @Test
@@ -10,21 +18,150 @@ class AlgorithmsTestsJava : AbstractAlgorithmsTests() {
         optimizeBuyAndSell { JavaAlgorithms.optimizeBuyAndSell(it) }
     }
 
+    @Test
+    @Tag("2")
+    fun testOptimizeBuyAndSellParallelJava() {
+        optimizeBuyAndSell { JavaAlgorithms.optimizeBuyAndSell(it, 4) }
+        try {
+            File("temp_prices.txt").writeText("5\n0\n7\n")
+            val thrown = assertFailsWith<IllegalArgumentException> {
+                JavaAlgorithms.optimizeBuyAndSell("temp_prices.txt", 4)
+            }
+            assertEquals("Неверный формат данных", thrown.message)
+        } finally {
+            File("temp_prices.txt").delete()
+        }
+    }
+
+    @Test
+    @Tag("2")
+    fun testOptimizeBuyAndSellExecutorJava() {
+        // один пул на все вызовы: он не закрывается после вызова
+        val executor = Executors.newFixedThreadPool(2)
+        try {
+            optimizeBuyAndSell { JavaAlgorithms.optimizeBuyAndSell(it, 4, executor) }
+            assertFalse(executor.isShutdown)
+        } finally {
+            executor.shutdown()
+        }
+        // пул, отклоняющий задачи: все куски считаются в вызывающем потоке
+        optimizeBuyAndSell { JavaAlgorithms.optimizeBuyAndSell(it, 4) { throw RejectedExecutionException() } }
+    }
+
     @Test
     @Tag("2")
     fun testJosephTaskJava() {
         josephTask { menNumber, choiceInterval -> JavaAlgorithms.josephTask(menNumber, choiceInterval) }
     }
 
+    @Test
+    @Tag("2")
+    fun testJosephTaskLongJava() {
+        assertEquals(Long.MAX_VALUE, JavaAlgorithms.josephTask(Long.MAX_VALUE, 2L))
+        assertEquals(1L, JavaAlgorithms.josephTask(1L shl 62, 2L))
+        // большие n и k: ~k * ln(n / k) прыжков без памяти на каждый из них
+        assertEquals(2128919230, JavaAlgorithms.josephTask(Int.MAX_VALUE, 50_000_000))
+        assertEquals(8083849260841190968L, JavaAlgorithms.josephTask(Long.MAX_VALUE, 1_000_000L))
+        var large = 0L
+        for (m in 2..100_000_000L) large = (large + 2_000_000L) % m
+        assertEquals(large + 1, JavaAlgorithms.josephTask(100_000_000L, 2_000_000L))
+        // рекуррента с прыжками против простой
+        for (menNumber in listOf(1000L, 12345L, 999999L)) {
+            for (choiceInterval in 2L..30L) {
+                var survivor = 0L
+                for (m in 2..menNumber) survivor = (survivor + choiceInterval) % m
+                assertEquals(survivor + 1, JavaAlgorithms.josephTask(menNumber, choiceInterval))
+            }
+        }
+    }
+
+    @Test
+    @Tag("2")
+    fun testJosephOrderJava() {
+        assertContentEquals(intArrayOf(5, 2, 8, 7, 1, 4, 6, 3), JavaAlgorithms.josephOrder(8, 5))
+        for (menNumber in 1..200) {
+            for (choiceInterval in 1..20) {
+                val circle = (1..menNumber).toMutableList()
+                val expected = mutableListOf<Int>()
+                var position = 0
+                while (circle.isNotEmpty()) {
+                    position = (position + choiceInterval - 1) % circle.size
+                    expected += circle.removeAt(position)
+                }
+                val order = JavaAlgorithms.josephOrder(menNumber, choiceInterval)
+                assertContentEquals(expected.toIntArray(), order)
+                assertEquals(JavaAlgorithms.josephTask(menNumber, choiceInterval), order.last())
+            }
+        }
+    }
+
     @Test
     @Tag("4")
     fun testLongestCommonSubstringJava() {
         longestCommonSubstring { first, second -> JavaAlgorithms.longestCommonSubstring(first, second) }
     }
 
+    @Test
+    @Tag("4")
+    fun testLongestCommonSubstringLongJava() {
+        val random = Random()
+        val alphabet = "абвгдеёжзи"
+        fun randomString(length: Int) = String(CharArray(length) { alphabet[random.nextInt(alphabet.length)] })
+        // общая подстрока длины 100, окружённая в first и second разными символами не из алфавита
+        val common = randomString(100)
+        val first = randomString(500_000) + "[" + common + "]" + randomString(500_000)
+        val second = randomString(300_000) + "(" + common + ")" + randomString(300_000)
+        assertEquals(common, JavaAlgorithms.longestCommonSubstring(first, second))
+    }
+
+    @Test
+    @Tag("4")
+    fun testLongestCommonSubstringParallelJava() {
+        longestCommonSubstring { first, second -> JavaAlgorithms.longestCommonSubstring(first, second, 4) }
+        // из равных по длине -- самая ранняя в first, в какой бы части диагоналей она ни нашлась
+        assertEquals("ab", JavaAlgorithms.longestCommonSubstring("abxcd", "cdyab", 2))
+        assertEquals("cd", JavaAlgorithms.longestCommonSubstring("cdxab", "abycd", 2))
+    }
+
     @Test
     @Tag("3")
     fun testCalcPrimesNumberJava() {
         calcPrimesNumber { JavaAlgorithms.calcPrimesNumber(it) }
     }
+
+    @Test
+    @Tag("4")
+    fun testCalcPrimesNumberLongJava() {
+        calcPrimesNumber { JavaAlgorithms.calcPrimesNumber(it.toLong(), 3).toInt() }
+        assertEquals(105097565, JavaAlgorithms.calcPrimesNumber(Int.MAX_VALUE))
+        assertEquals(203280221L, JavaAlgorithms.calcPrimesNumber(1L shl 32))
+        assertEquals(203280221L, JavaAlgorithms.calcPrimesNumber(1L shl 32, 1))
+
+        // сегмент у MAX_LIMIT с кратным простого 2^31 - 1: номер бита + p не помещается в int
+        val large = Int.MAX_VALUE
+        val primes = PrimeSieve.oddPrimes(1000) + large
+        val from = ((large.toLong() * large - 1) / 2 - 1000) / Long.SIZE_BITS * Long.SIZE_BITS
+        val bits = LongArray(PrimeSieve.SEGMENT_WORDS)
+        PrimeSieve.sieveSegment(bits, from, PrimeSieve.SEGMENT_BITS, primes)
+        for (k in 0 until PrimeSieve.SEGMENT_BITS) {
+            val n = 2 * (from + k) + 1
+            assertEquals(primes.none { n % it == 0L }, bits[k ushr 6] ushr k and 1L == 1L, "n = $n")
+        }
+    }
+
+    @Test
+    @Tag("4")
+    fun testCalcPrimesNumberLehmerJava() {
+        // по обе стороны от перехода решето -> формула Лемера
+        for (limit in listOf(1L shl 19, (1L shl 19) + 1, 1L shl 20, 12_345_678L, 987_654_321L)) {
+            assertEquals(JavaAlgorithms.calcPrimesNumber(limit, 1), JavaAlgorithms.calcPrimesNumber(limit))
+        }
+        assertEquals(455052511L, JavaAlgorithms.calcPrimesNumber(10_000_000_000L))
+        assertEquals(4118054813L, JavaAlgorithms.calcPrimesNumber(100_000_000_000L))
+        assertEquals(37607912018L, JavaAlgorithms.calcPrimesNumber(1_000_000_000_000L))
+        // малые x, в том числе без простых до корня из x
+        for (limit in -1L..200L) {
+            assertEquals(JavaAlgorithms.calcPrimesNumber(limit, 1), LehmerPrimeCounter.count(limit), "x = $limit")
+        }
+    }
 }
\ No newline at end of file
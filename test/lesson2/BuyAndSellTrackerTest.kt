@@ -0,0 +1,58 @@
+package lesson2
+
+import org.junit.jupiter.api.Tag
+import java.util.*
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class BuyAndSellTrackerTest {
+
+    // лучшая сделка в prices[from, to) перебором: (покупка, продажа, прибыль), моменты с единицы
+    private fun bruteForce(prices: IntArray, from: Int, to: Int): Triple<Long, Long, Long>? {
+        var best: Triple<Long, Long, Long>? = null
+        for (sell in from + 1 until to) {
+            for (buy in from until sell) {
+                val profit = prices[sell].toLong() - prices[buy]
+                if (best == null || profit > best.third) best = Triple(buy + 1L, sell + 1L, profit)
+            }
+        }
+        return best
+    }
+
+    private fun testTracker(window: Int) {
+        val random = Random()
+        for (iteration in 1..200) {
+            val range = if (iteration % 2 == 0) 4 else 1000
+            val prices = IntArray(random.nextInt(100) + 1) { random.nextInt(range) + 1 }
+            val tracker = if (window == 0) BuyAndSellTracker() else BuyAndSellTracker(window)
+            for (tick in prices.indices) {
+                tracker.push(prices[tick])
+                val from = if (window == 0) 0 else maxOf(0, tick - window + 1)
+                val expected = bruteForce(prices, from, tick + 1)
+                if (expected == null) {
+                    assertFalse(tracker.hasTrade())
+                } else {
+                    assertTrue(tracker.hasTrade())
+                    assertEquals(expected, Triple(tracker.buy(), tracker.sell(), tracker.profit()))
+                }
+            }
+            assertEquals(prices.size.toLong(), tracker.ticks())
+        }
+    }
+
+    @Test
+    @Tag("Example")
+    fun unbounded() {
+        testTracker(0)
+    }
+
+    @Test
+    @Tag("Example")
+    fun slidingWindow() {
+        for (window in listOf(2, 3, 7, 16)) {
+            testTracker(window)
+        }
+    }
+}
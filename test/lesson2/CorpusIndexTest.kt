@@ -0,0 +1,90 @@
+package lesson2
+
+import org.junit.jupiter.api.Tag
+import java.util.*
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class CorpusIndexTest {
+
+    private val random = Random()
+
+    private fun randomString(maxLength: Int, alphabet: Int) =
+        String(CharArray(random.nextInt(maxLength + 1)) { 'а' + random.nextInt(alphabet) })
+
+    // самая длинная подстрока query, которая есть в document, перебором; из равных -- самая ранняя в query
+    private fun bruteForce(query: String, document: String): String {
+        var best = ""
+        for (start in query.indices) {
+            for (end in start + best.length + 1..query.length) {
+                val candidate = query.substring(start, end)
+                if (candidate in document) best = candidate
+            }
+        }
+        return best
+    }
+
+    // самая длинная подстрока всех документов перебором; из равных -- самая ранняя в первом
+    private fun bruteForce(documents: List<String>): String {
+        if (documents.isEmpty()) return ""
+        val first = documents[0]
+        var best = ""
+        for (start in first.indices) {
+            for (end in start + best.length + 1..first.length) {
+                val candidate = first.substring(start, end)
+                if (documents.all { candidate in it }) best = candidate
+            }
+        }
+        return best
+    }
+
+    @Test
+    @Tag("Example")
+    fun sharedWithDocument() {
+        for (iteration in 1..500) {
+            val alphabet = random.nextInt(4) + 1
+            val documents = List(random.nextInt(5) + 1) { randomString(30, alphabet) }
+            val index = CorpusIndex(documents)
+            assertEquals(documents.size, index.size())
+            for (query in List(5) { randomString(30, alphabet) }) {
+                for (document in documents.indices) {
+                    assertEquals(bruteForce(query, documents[document]), index.longestCommonSubstring(query, document))
+                }
+                assertEquals(
+                    documents.maxOf { bruteForce(query, it).length },
+                    index.longestCommonSubstring(query).length
+                )
+            }
+        }
+    }
+
+    @Test
+    @Tag("Example")
+    fun commonToAll() {
+        assertEquals("", CorpusIndex(listOf()).longestCommonToAll())
+        assertEquals("СЕРВАТОР", JavaAlgorithms.longestCommonSubstring(listOf("ОБСЕРВАТОРИЯ", "КОНСЕРВАТОРЫ")))
+        assertEquals("ВАТ", JavaAlgorithms.longestCommonSubstring(listOf("ОБСЕРВАТОРИЯ", "КОНСЕРВАТОРЫ", "ВАТА")))
+        for (iteration in 1..500) {
+            val alphabet = random.nextInt(4) + 1
+            val documents = List(random.nextInt(6)) { randomString(30, alphabet) }
+            assertEquals(bruteForce(documents), CorpusIndex(documents).longestCommonToAll())
+        }
+    }
+
+    @Test
+    @Tag("Example")
+    fun largeCorpus() {
+        // общая часть окружена в каждом документе скобками, которых нет в остальном тексте
+        val common = "[" + randomString(50, 10) + "]"
+        val documents = List(2000) {
+            val text = randomString(500, 30)
+            val position = random.nextInt(text.length + 1)
+            text.substring(0, position) + common + text.substring(position)
+        }
+        val index = CorpusIndex(documents)
+        assertEquals(common, index.longestCommonToAll())
+        for (document in documents.indices) {
+            assertEquals(common, index.longestCommonSubstring("{$common}", document))
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package lesson2
+
+import org.junit.jupiter.api.Tag
+import java.util.*
+import java.util.concurrent.Executors
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+class PrimeTableTest {
+
+    private val limit = 3_000_000
+
+    // composite[n] -- не простое ли n, по обычному решету
+    private val composite = BooleanArray(limit + 1).also {
+        it[0] = true
+        it[1] = true
+        for (i in 2..limit) {
+            if (it[i]) continue
+            var j = i.toLong() * i
+            while (j <= limit) {
+                it[j.toInt()] = true
+                j += i
+            }
+        }
+    }
+
+    private val pi = IntArray(limit + 1).also {
+        for (n in 2..limit) it[n] = it[n - 1] + if (composite[n]) 0 else 1
+    }
+
+    private fun nextPrime(n: Int): Int {
+        var candidate = n + 1
+        while (composite[candidate]) candidate++
+        return candidate
+    }
+
+    @Test
+    @Tag("Example")
+    fun queries() {
+        val table = PrimeTable(10)
+        for (n in -2..5000) {
+            assertEquals(if (n < 0) 0L else pi[n].toLong(), table.pi(n.toLong()), "pi($n)")
+            assertEquals(n >= 0 && !composite[n], table.isPrime(n.toLong()), "isPrime($n)")
+            if (n >= 0) assertEquals(nextPrime(n).toLong(), table.nextPrime(n.toLong()), "nextPrime($n)")
+        }
+        val random = Random()
+        for (iteration in 1..10000) {
+            val from = random.nextInt(limit - 1000)
+            val to = from + random.nextInt(1000)
+            val expected = pi[to] - if (from == 0) 0 else pi[from - 1]
+            assertEquals(expected.toLong(), table.count(from.toLong(), to.toLong()))
+            assertEquals(nextPrime(to).toLong(), table.nextPrime(to.toLong()))
+        }
+        assertEquals(0L, table.count(10, 9))
+    }
+
+    @Test
+    @Tag("Example")
+    fun growth() {
+        val table = PrimeTable()
+        val initial = table.limit()
+        // следующее простое за границей таблицы
+        assertEquals(nextPrime(initial.toInt() - 1).toLong(), table.nextPrime(initial - 1))
+        assertTrue(table.limit() > initial)
+        assertEquals(203280221L, table.pi(PrimeTable.MAX_LIMIT))
+        assertEquals(4294967291L, table.nextPrime(4294967279L))
+        assertFailsWith<IllegalArgumentException> { table.pi(PrimeTable.MAX_LIMIT + 1) }
+    }
+
+    @Test
+    @Tag("Example")
+    fun concurrentReaders() {
+        val table = PrimeTable()
+        val executor = Executors.newFixedThreadPool(4)
+        try {
+            val futures = (1..4).map { seed ->
+                executor.submit(Runnable {
+                    val random = Random(seed.toLong())
+                    // запросы постепенно уходят за границу таблицы, так что она растёт под чтением
+                    for (iteration in 0 until 100000) {
+                        val n = random.nextInt(minOf(limit, 1000 + iteration * 30))
+                        assertEquals(pi[n].toLong(), table.pi(n.toLong()))
+                        assertEquals(!composite[n], table.isPrime(n.toLong()))
+                    }
+                })
+            }
+            futures.forEach { it.get() }
+        } finally {
+            executor.shutdown()
+        }
+    }
+}
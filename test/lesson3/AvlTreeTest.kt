@@ -0,0 +1,115 @@
+package lesson3
+
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+import kotlin.math.ln
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class AvlTreeTest : AbstractBinarySearchTreeTest() {
+
+    override fun create(): CheckableSortedSet<Int> =
+        AvlTree()
+
+    @Test
+    @Tag("Example")
+    fun initTestJava() {
+        doInitTest()
+    }
+
+    @Test
+    @Tag("Example")
+    fun addTestJava() {
+        doAddTest()
+    }
+
+    @Test
+    @Tag("Example")
+    fun firstAndLastTestJava() {
+        doFirstAndLastTest()
+    }
+
+    @Test
+    @Tag("5")
+    fun removeTestJava() {
+        doRemoveTest()
+    }
+
+    @Test
+    @Tag("5")
+    fun iteratorTestJava() {
+        doIteratorTest()
+    }
+
+    @Test
+    @Tag("8")
+    fun iteratorRemoveTestJava() {
+        doIteratorRemoveTest()
+    }
+
+    @Test
+    @Tag("5")
+    fun subSetTestJava() {
+        doSubSetTest()
+    }
+
+    @Test
+    @Tag("8")
+    fun subSetRelationTestJava() {
+        doSubSetRelationTest()
+    }
+
+    @Test
+    @Tag("7")
+    fun subSetFirstAndLastTestJava() {
+        doSubSetFirstAndLastTest()
+    }
+
+    @Test
+    @Tag("4")
+    fun headSetTestJava() {
+        doHeadSetTest()
+    }
+
+    @Test
+    @Tag("7")
+    fun headSetRelationTestJava() {
+        doHeadSetRelationTest()
+    }
+
+    @Test
+    @Tag("4")
+    fun tailSetTestJava() {
+        doTailSetTest()
+    }
+
+    @Test
+    @Tag("7")
+    fun tailSetRelationTestJava() {
+        doTailSetRelationTest()
+    }
+
+    // высота АВЛ-дерева из n узлов
+    private fun maxHeight(n: Int) = (1.45 * ln(n + 2.0) / ln(2.0)).toInt()
+
+    @Test
+    @Tag("Example")
+    fun sortedInputTestJava() {
+        val n = 1_000_000
+        for (keys in listOf((0 until n).toList(), (n - 1 downTo 0).toList())) {
+            val tree = AvlTree<Int>()
+            for (key in keys) tree.add(key)
+            assertEquals(n, tree.size)
+            assertTrue(tree.height() <= maxHeight(n), "Height ${tree.height()} of a balanced tree is too large")
+            assertTrue(tree.checkInvariant())
+            for (key in keys) assertTrue(key in tree)
+            // удаление каждого второго ключа по возрастанию
+            for (key in 0 until n step 2) assertTrue(tree.remove(key))
+            assertEquals(n / 2, tree.size)
+            assertTrue(tree.height() <= maxHeight(n / 2))
+            assertTrue(tree.checkInvariant())
+            assertEquals((1 until n step 2).toList(), tree.toList())
+        }
+    }
+
+}
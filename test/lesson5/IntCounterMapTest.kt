@@ -0,0 +1,35 @@
+package lesson5
+
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+import java.util.*
+import kotlin.test.assertEquals
+
+class IntCounterMapTest {
+
+    @Test
+    @Tag("Example")
+    fun incrementAndGet() {
+        val random = Random()
+        for (iteration in 1..50) {
+            val counter = IntCounterMap(2)
+            val control = mutableMapOf<Int, Int>()
+            // малый диапазон - много повторов, сдвиг на 8 бит - ключи, кратные степени двойки
+            val range = if (iteration % 2 == 0) 100 else Int.MAX_VALUE
+            for (i in 1..10000) {
+                val key = if (iteration % 3 == 0) random.nextInt(range) shl 8 else random.nextInt(range) - range / 2
+                val expected = (control[key] ?: 0) + 1
+                control[key] = expected
+                assertEquals(expected, counter.increment(key), "Wrong count after increment of $key.")
+            }
+            assertEquals(control.size, counter.size(), "The size of the map is not as expected.")
+            for ((key, count) in control) {
+                assertEquals(count, counter.get(key))
+            }
+            for (i in 1..1000) {
+                val key = random.nextInt()
+                assertEquals(control[key] ?: 0, counter.get(key))
+            }
+        }
+    }
+}